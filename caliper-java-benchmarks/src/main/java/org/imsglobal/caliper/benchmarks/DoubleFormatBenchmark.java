@@ -0,0 +1,80 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.io.CharStreams;
+import org.imsglobal.caliper.databind.JxnDoubleSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing score-like doubles with JxnDoubleSerializer against the DecimalFormat it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DoubleFormatBenchmark {
+    private static final double[] VALUES = { 15.0, 10.0, 7.5, 3.25, 0.875, 99.99, 42.125, 1234.5678 };
+
+    private final JxnDoubleSerializer serializer = new JxnDoubleSerializer();
+    private JsonGenerator generator;
+    private int index;
+
+    @Setup
+    public void setUp() throws IOException {
+        generator = new JsonFactory().createGenerator(CharStreams.nullWriter());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        generator.close();
+    }
+
+    @Benchmark
+    public void decimalFormat() throws IOException {
+        generator.writeNumber(new DecimalFormat("##0.0#").format(next()));
+    }
+
+    @Benchmark
+    public void serializer() throws IOException {
+        serializer.serialize(next(), generator, null);
+    }
+
+    private double next() {
+        return VALUES[index++ & (VALUES.length - 1)];
+    }
+}
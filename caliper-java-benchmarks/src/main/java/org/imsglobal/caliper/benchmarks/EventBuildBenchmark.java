@@ -0,0 +1,65 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.benchmarks;
+
+import org.imsglobal.caliper.events.CaliperEvent;
+import org.imsglobal.caliper.events.EventType;
+import org.imsglobal.caliper.testing.Events;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building and validating one event of each type from prebuilt entities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventBuildBenchmark {
+    private static final String ID = "urn:uuid:fcd495d0-3740-4298-9bec-1154571dc211";
+
+    @Param({ "ANNOTATION", "ASSESSMENT", "ASSESSMENT_ITEM", "ASSIGNABLE", "EVENT", "FORUM", "GRADE", "MEDIA",
+        "MESSAGE", "NAVIGATION", "SESSION", "THREAD", "TOOL_USE", "VIEW" })
+    public EventType type;
+
+    private Events events;
+
+    @Setup
+    public void setUp() {
+        events = new Events();
+    }
+
+    @Benchmark
+    public CaliperEvent build() {
+        return events.build(type, ID);
+    }
+}
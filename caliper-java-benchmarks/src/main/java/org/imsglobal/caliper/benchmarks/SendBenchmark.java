@@ -0,0 +1,85 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.benchmarks;
+
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.clients.HttpClient;
+import org.imsglobal.caliper.clients.HttpClientOptions;
+import org.imsglobal.caliper.testing.Events;
+import org.imsglobal.caliper.testing.LoopbackEndpoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of HttpClient.send against an in-process endpoint on the loopback interface, so the
+ * result reflects serialization, connection pooling and HTTP framing rather than the network.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SendBenchmark {
+
+    @Param({ "1", "10" })
+    public int batchSize;
+
+    private LoopbackEndpoint endpoint;
+    private HttpClient client;
+    private Envelope envelope;
+
+    @Setup
+    public void setUp() throws IOException {
+        endpoint = LoopbackEndpoint.create(4);
+        client = HttpClient.create("urn:benchmark:client", HttpClientOptions.builder()
+            .apiKey("benchmark")
+            .host(endpoint.getHost())
+            .maxTotal(8)
+            .maxPerRoute(8)
+            .build());
+        envelope = SerializeBenchmark.envelope(new Events(), batchSize);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        endpoint.stop();
+    }
+
+    @Benchmark
+    public void send() {
+        client.send(envelope);
+    }
+}
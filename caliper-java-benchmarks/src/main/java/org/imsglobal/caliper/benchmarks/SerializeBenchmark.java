@@ -0,0 +1,119 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.clients.AbstractClient;
+import org.imsglobal.caliper.clients.HttpClientOptions;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.events.EventType;
+import org.imsglobal.caliper.testing.Events;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of AbstractClient.writeEnvelope, the serialization path used by the HTTP clients, for single
+ * and batched envelopes of mixed event types in each data format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializeBenchmark {
+
+    @Param({ "1", "10", "100" })
+    public int batchSize;
+
+    @Param({ "false", "true" })
+    public boolean deduplicateEntities;
+
+    @Param({ "CALIPER_JSONLD", "CALIPER_JSON", "CALIPER_SMILE", "CALIPER_CBOR" })
+    public DataFormat dataFormat;
+
+    private SerializingClient client;
+    private Envelope envelope;
+
+    @Setup
+    public void setUp() {
+        client = new SerializingClient(HttpClientOptions.builder()
+            .apiKey("benchmark")
+            .deduplicateEntities(deduplicateEntities)
+            .dataFormat(dataFormat)
+            .build());
+        envelope = envelope(new Events(), batchSize);
+    }
+
+    @Benchmark
+    public byte[] writeEnvelope() throws JsonProcessingException {
+        return client.write(envelope);
+    }
+
+    /**
+     * Build an envelope holding a batch of events that cycles through the event types.
+     * @param events
+     * @param batchSize
+     * @return envelope
+     */
+    static Envelope envelope(Events events, int batchSize) {
+        EventType[] types = EventType.values();
+        List<Object> data = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            data.add(events.build(types[i % types.length], "urn:uuid:" + UUID.randomUUID()));
+        }
+        return new Envelope("https://example.edu/sensors/1", DateTime.now(), Config.DATA_VERSION, data);
+    }
+
+    /**
+     * Client that exposes writeEnvelope and never sends.
+     */
+    static final class SerializingClient extends AbstractClient {
+
+        SerializingClient(HttpClientOptions options) {
+            super("urn:benchmark:client", options);
+        }
+
+        byte[] write(Envelope envelope) throws JsonProcessingException {
+            return writeEnvelope(envelope);
+        }
+
+        @Override
+        public void send(Envelope envelope) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
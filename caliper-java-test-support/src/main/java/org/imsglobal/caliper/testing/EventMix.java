@@ -0,0 +1,115 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.testing;
+
+import org.imsglobal.caliper.events.EventType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Weighted distribution of event types from which a load generator draws.
+ */
+public final class EventMix {
+    private final EventType[] types;
+    private final int[] cumulative;
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory methods.
+     * @param weights
+     */
+    private EventMix(Map<EventType, Integer> weights) {
+        types = new EventType[weights.size()];
+        cumulative = new int[weights.size()];
+
+        int i = 0;
+        int total = 0;
+        for (Map.Entry<EventType, Integer> entry : weights.entrySet()) {
+            checkArgument(entry.getValue() > 0, "weight of %s must be positive", entry.getKey());
+            total += entry.getValue();
+            types[i] = entry.getKey();
+            cumulative[i++] = total;
+        }
+        checkArgument(total > 0, "at least one event type must be weighted");
+    }
+
+    /**
+     * Draw the next event type.
+     * @param random
+     * @return event type
+     */
+    public EventType next(Random random) {
+        int roll = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (roll < cumulative[i]) {
+                return types[i];
+            }
+        }
+        return types[types.length - 1];
+    }
+
+    /**
+     * Factory method for a mix with the given weights.
+     * @param weights
+     * @return EventMix
+     */
+    public static EventMix of(Map<EventType, Integer> weights) {
+        return new EventMix(new EnumMap<>(weights));
+    }
+
+    /**
+     * Factory method for a mix that weights every event type with an event class equally.
+     * @return EventMix
+     */
+    public static EventMix uniform() {
+        Map<EventType, Integer> weights = new EnumMap<>(EventType.class);
+        for (EventType type : EventType.values()) {
+            if (type != EventType.READING) {
+                weights.put(type, 1);
+            }
+        }
+        return new EventMix(weights);
+    }
+
+    /**
+     * Factory method for a mix resembling a course site: mostly navigation and viewing, with a
+     * steady share of sessions and media, and fewer assessment, grading and discussion events.
+     * @return EventMix
+     */
+    public static EventMix realistic() {
+        Map<EventType, Integer> weights = new EnumMap<>(EventType.class);
+        weights.put(EventType.NAVIGATION, 30);
+        weights.put(EventType.VIEW, 25);
+        weights.put(EventType.SESSION, 10);
+        weights.put(EventType.MEDIA, 8);
+        weights.put(EventType.ASSESSMENT_ITEM, 8);
+        weights.put(EventType.ANNOTATION, 5);
+        weights.put(EventType.ASSESSMENT, 4);
+        weights.put(EventType.GRADE, 3);
+        weights.put(EventType.ASSIGNABLE, 2);
+        weights.put(EventType.MESSAGE, 2);
+        weights.put(EventType.FORUM, 1);
+        weights.put(EventType.THREAD, 1);
+        weights.put(EventType.TOOL_USE, 1);
+        return new EventMix(weights);
+    }
+}
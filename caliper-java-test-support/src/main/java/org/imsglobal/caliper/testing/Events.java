@@ -0,0 +1,220 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.testing;
+
+import org.imsglobal.caliper.actions.Action;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.entities.agent.CourseSection;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.imsglobal.caliper.entities.agent.SoftwareApplication;
+import org.imsglobal.caliper.entities.annotation.HighlightAnnotation;
+import org.imsglobal.caliper.entities.outcome.Score;
+import org.imsglobal.caliper.entities.resource.Assessment;
+import org.imsglobal.caliper.entities.resource.AssessmentItem;
+import org.imsglobal.caliper.entities.resource.AssignableDigitalResource;
+import org.imsglobal.caliper.entities.resource.Attempt;
+import org.imsglobal.caliper.entities.resource.Document;
+import org.imsglobal.caliper.entities.resource.Forum;
+import org.imsglobal.caliper.entities.resource.Message;
+import org.imsglobal.caliper.entities.resource.Thread;
+import org.imsglobal.caliper.entities.resource.VideoObject;
+import org.imsglobal.caliper.entities.resource.WebPage;
+import org.imsglobal.caliper.entities.session.Session;
+import org.imsglobal.caliper.events.AnnotationEvent;
+import org.imsglobal.caliper.events.AssessmentEvent;
+import org.imsglobal.caliper.events.AssessmentItemEvent;
+import org.imsglobal.caliper.events.AssignableEvent;
+import org.imsglobal.caliper.events.CaliperEvent;
+import org.imsglobal.caliper.events.Event;
+import org.imsglobal.caliper.events.EventType;
+import org.imsglobal.caliper.events.ForumEvent;
+import org.imsglobal.caliper.events.GradeEvent;
+import org.imsglobal.caliper.events.MediaEvent;
+import org.imsglobal.caliper.events.MessageEvent;
+import org.imsglobal.caliper.events.NavigationEvent;
+import org.imsglobal.caliper.events.SessionEvent;
+import org.imsglobal.caliper.events.ThreadEvent;
+import org.imsglobal.caliper.events.ToolUseEvent;
+import org.imsglobal.caliper.events.ViewEvent;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Builds one representative event of each EventType from a fixed set of entities modelled on the
+ * unit test fixtures: a student in a course section working through a reading, an assessment, a
+ * forum and a video.
+ */
+public final class Events {
+    private static final String BASE_IRI = "https://example.edu";
+    private static final String SECTION_IRI = BASE_IRI.concat("/terms/201601/courses/7/sections/1");
+    private static final DateTime EVENT_TIME = new DateTime(2016, 11, 15, 10, 15, 0, 0, DateTimeZone.UTC);
+
+    private final JsonldStringContext context = JsonldStringContext.getDefault();
+    private final Person actor;
+    private final SoftwareApplication edApp;
+    private final CourseSection group;
+    private final Session session;
+    private final Document document;
+    private final WebPage page;
+    private final HighlightAnnotation highlight;
+    private final Assessment assessment;
+    private final AssessmentItem item;
+    private final AssignableDigitalResource assignable;
+    private final Attempt attempt;
+    private final Score score;
+    private final Forum forum;
+    private final Thread thread;
+    private final Message message;
+    private final VideoObject video;
+
+    /**
+     * Constructor
+     */
+    public Events() {
+        actor = Person.builder().id(BASE_IRI.concat("/users/554433")).build();
+        edApp = SoftwareApplication.builder().id(BASE_IRI).version("v2").build();
+        group = CourseSection.builder().id(SECTION_IRI).courseNumber("CPS 435-01").academicSession("Fall 2016").build();
+        session = Session.builder()
+            .id(BASE_IRI.concat("/sessions/1f6442a482de72ea6ad134943812bff564a76259"))
+            .user(actor)
+            .startedAtTime(EVENT_TIME.minusMinutes(15))
+            .build();
+
+        document = Document.builder()
+            .id(BASE_IRI.concat("/etexts/201.epub"))
+            .name("IMS Caliper Implementation Guide")
+            .dateCreated(EVENT_TIME.minusMonths(2))
+            .version("1.1")
+            .build();
+        page = WebPage.builder().id(SECTION_IRI.concat("/pages/2")).name("Learning Analytics Specifications").build();
+        highlight = HighlightAnnotation.builder()
+            .id(BASE_IRI.concat("/users/554433/etexts/201/highlights/2300"))
+            .annotator(Person.builder().id(actor.getId()).coercedToId(true).build())
+            .annotated(Document.builder().id(document.getId()).coercedToId(true).build())
+            .selectionText("ISO 8601 formatted date and time expressions.")
+            .build();
+
+        item = AssessmentItem.builder().id(SECTION_IRI.concat("/assess/1/items/3")).name("Assessment Item 3").build();
+        assessment = Assessment.builder()
+            .id(SECTION_IRI.concat("/assess/1"))
+            .name("Quiz One")
+            .maxAttempts(2)
+            .maxSubmits(2)
+            .maxScore(15.0)
+            .version("1.0")
+            .build();
+        assignable = AssignableDigitalResource.builder()
+            .id(SECTION_IRI.concat("/assign/2"))
+            .name("Week 9 Reflection")
+            .maxScore(5.0)
+            .build();
+        attempt = Attempt.builder()
+            .id(SECTION_IRI.concat("/assess/1/users/554433/attempts/1"))
+            .assignee(Person.builder().id(actor.getId()).coercedToId(true).build())
+            .assignable(Assessment.builder().id(assessment.getId()).coercedToId(true).build())
+            .count(1)
+            .startedAtTime(EVENT_TIME.minusMinutes(30))
+            .endedAtTime(EVENT_TIME.minusMinutes(5))
+            .build();
+        score = Score.builder()
+            .id(SECTION_IRI.concat("/assess/1/users/554433/attempts/1/scores/1"))
+            .attempt(Attempt.builder().id(attempt.getId()).coercedToId(true).build())
+            .maxScore(15.0)
+            .scoreGiven(10.0)
+            .scoredBy(SoftwareApplication.builder().id(BASE_IRI.concat("/autograder")).build())
+            .comment("auto-graded exam")
+            .build();
+
+        forum = Forum.builder().id(SECTION_IRI.concat("/forums/1")).name("Caliper Forum").build();
+        thread = Thread.builder()
+            .id(SECTION_IRI.concat("/forums/1/topics/1"))
+            .name("Caliper Information Model")
+            .isPartOf(Forum.builder().id(forum.getId()).coercedToId(true).build())
+            .build();
+        message = Message.builder()
+            .id(SECTION_IRI.concat("/forums/1/topics/1/messages/2"))
+            .body("Are the Caliper Sensor reference implementations publicly available?")
+            .isPartOf(Thread.builder().id(thread.getId()).coercedToId(true).build())
+            .build();
+        video = VideoObject.builder()
+            .id(BASE_IRI.concat("/UQVK-dsU7-Y"))
+            .name("Information and Welcome")
+            .mediaType("video/ogg")
+            .duration("PT20M20S")
+            .build();
+    }
+
+    /**
+     * Build an event of the given type.  READING has no event class of its own and, like EVENT,
+     * yields a generic Event.
+     * @param type
+     * @param id
+     * @return event
+     */
+    public CaliperEvent build(EventType type, String id) {
+        switch (type) {
+            case ANNOTATION:
+                return AnnotationEvent.builder().context(context).id(id).actor(actor).action(Action.HIGHLIGHTED)
+                    .object(document).generated(highlight).eventTime(EVENT_TIME).edApp(edApp).group(group)
+                    .session(session).build();
+            case ASSESSMENT:
+                return AssessmentEvent.builder().context(context).id(id).actor(actor).action(Action.STARTED)
+                    .object(assessment).generated(attempt).eventTime(EVENT_TIME).edApp(edApp).group(group)
+                    .session(session).build();
+            case ASSESSMENT_ITEM:
+                return AssessmentItemEvent.builder().context(context).id(id).actor(actor).action(Action.STARTED)
+                    .object(item).generated(attempt).eventTime(EVENT_TIME).edApp(edApp).group(group)
+                    .session(session).build();
+            case ASSIGNABLE:
+                return AssignableEvent.builder().context(context).id(id).actor(actor).action(Action.ACTIVATED)
+                    .object(assignable).eventTime(EVENT_TIME).edApp(edApp).group(group).session(session).build();
+            case FORUM:
+                return ForumEvent.builder().context(context).id(id).actor(actor).action(Action.SUBSCRIBED)
+                    .object(forum).eventTime(EVENT_TIME).edApp(edApp).group(group).session(session).build();
+            case GRADE:
+                return GradeEvent.builder().context(context).id(id).actor(score.getScoredBy()).action(Action.GRADED)
+                    .object(attempt).generated(score).eventTime(EVENT_TIME).edApp(edApp).group(group).build();
+            case MEDIA:
+                return MediaEvent.builder().context(context).id(id).actor(actor).action(Action.PAUSED)
+                    .object(video).eventTime(EVENT_TIME).edApp(edApp).group(group).session(session).build();
+            case MESSAGE:
+                return MessageEvent.builder().context(context).id(id).actor(actor).action(Action.POSTED)
+                    .object(message).eventTime(EVENT_TIME).edApp(edApp).group(group).session(session).build();
+            case NAVIGATION:
+                return NavigationEvent.builder().context(context).id(id).actor(actor).action(Action.NAVIGATED_TO)
+                    .object(page).eventTime(EVENT_TIME).edApp(edApp).group(group).session(session).build();
+            case VIEW:
+                return ViewEvent.builder().context(context).id(id).actor(actor).action(Action.VIEWED)
+                    .object(document).eventTime(EVENT_TIME).edApp(edApp).group(group).session(session).build();
+            case SESSION:
+                return SessionEvent.builder().context(context).id(id).actor(actor).action(Action.LOGGED_IN)
+                    .object(edApp).eventTime(EVENT_TIME).edApp(edApp).session(session).build();
+            case THREAD:
+                return ThreadEvent.builder().context(context).id(id).actor(actor).action(Action.MARKED_AS_READ)
+                    .object(thread).eventTime(EVENT_TIME).edApp(edApp).group(group).session(session).build();
+            case TOOL_USE:
+                return ToolUseEvent.builder().context(context).id(id).actor(actor).action(Action.USED)
+                    .object(edApp).eventTime(EVENT_TIME).edApp(edApp).group(group).session(session).build();
+            case EVENT:
+            default:
+                return Event.builder().context(context).id(id).actor(actor).action(Action.CREATED)
+                    .object(document).eventTime(EVENT_TIME).edApp(edApp).group(group).session(session).build();
+        }
+    }
+}
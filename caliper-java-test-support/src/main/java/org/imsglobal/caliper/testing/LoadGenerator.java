@@ -0,0 +1,250 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.testing;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.clients.HttpClient;
+import org.imsglobal.caliper.clients.HttpClientOptions;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.statistics.LatencyHistogram;
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Drives a Sensor from a number of threads for a fixed duration.  Each thread repeatedly builds an
+ * envelope of events drawn from an EventMix and sends it to every registered client, recording the
+ * time spent in Sensor.send.
+ */
+public class LoadGenerator {
+    private final Sensor sensor;
+    private final EventMix mix;
+    private final int threads;
+    private final int batchSize;
+    private final long duration;
+    private final Events events = new Events();
+
+    /**
+     * Constructor
+     * @param builder
+     */
+    private LoadGenerator(Builder builder) {
+        this.sensor = checkNotNull(builder.sensor, "a sensor must be specified");
+        this.mix = (builder.mix != null) ? builder.mix : EventMix.realistic();
+        this.threads = (builder.threads > 0) ? builder.threads : 1;
+        this.batchSize = (builder.batchSize > 0) ? builder.batchSize : 1;
+        this.duration = (builder.duration > 0) ? builder.duration : TimeUnit.SECONDS.toMillis(10);
+    }
+
+    /**
+     * Run the load and wait for every thread to finish.
+     * @return report
+     * @throws InterruptedException
+     */
+    public LoadReport run() throws InterruptedException {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong envelopes = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+            new ThreadFactoryBuilder().setNameFormat("caliper-load-%d").build());
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(duration);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Envelope envelope = envelope(random);
+                        long sendStart = System.nanoTime();
+                        try {
+                            sensor.send(envelope);
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                        latency.recordSince(sendStart);
+                        envelopes.incrementAndGet();
+                        sent.addAndGet(batchSize);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(duration + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+
+        return new LoadReport(sent.get(), envelopes.get(), failures.get(), System.nanoTime() - start, latency.snapshot());
+    }
+
+    /**
+     * Build an envelope holding one batch of events.
+     * @param random
+     * @return envelope
+     */
+    private Envelope envelope(Random random) {
+        List<Object> data = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            data.add(events.build(mix.next(random), "urn:uuid:" + UUID.randomUUID()));
+        }
+        return sensor.create(sensor.getId(), DateTime.now(), Config.DATA_VERSION, data);
+    }
+
+    /**
+     * Builder class provides a fluid interface for setting load properties.
+     */
+    public static class Builder {
+        private Sensor sensor;
+        private EventMix mix;
+        private int threads = 0;
+        private int batchSize = 0;
+        private long duration = 0L;
+
+        /**
+         * Constructor
+         */
+        public Builder() {
+
+        }
+
+        /**
+         * @param sensor
+         * @return builder
+         */
+        public Builder sensor(final Sensor sensor) {
+            this.sensor = sensor;
+            return this;
+        }
+
+        /**
+         * @param mix
+         * @return builder
+         */
+        public Builder mix(final EventMix mix) {
+            this.mix = mix;
+            return this;
+        }
+
+        /**
+         * @param threads
+         * @return builder
+         */
+        public Builder threads(final int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * @param batchSize events per envelope
+         * @return builder
+         */
+        public Builder batchSize(final int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param duration in milliseconds
+         * @return builder
+         */
+        public Builder duration(final long duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        /**
+         * Client invokes build method in order to create an immutable object.
+         * @return a new instance of LoadGenerator.
+         */
+        public LoadGenerator build() {
+            return new LoadGenerator(this);
+        }
+    }
+
+    /**
+     * Static Factory method.
+     * @return new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Run a load against a LoopbackEndpoint and print the report.  Arguments are key=value pairs:
+     * threads, batch, seconds, latency (ms), errors and throttle (fractions between 0 and 1).
+     * @param args
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            checkArgument(pair.length == 2, "expected key=value but was %s", arg);
+            opts.put(pair[0], pair[1]);
+        }
+        int threads = Integer.parseInt(value(opts, "threads", "4"));
+
+        LoopbackEndpoint endpoint = LoopbackEndpoint.create(Math.max(threads, 4))
+            .latency(Long.parseLong(value(opts, "latency", "0")))
+            .errorRate(Double.parseDouble(value(opts, "errors", "0")), 503)
+            .throttleRate(Double.parseDouble(value(opts, "throttle", "0")), 1);
+        HttpClient client = HttpClient.create("urn:load:client", HttpClientOptions.builder()
+            .apiKey("load")
+            .host(endpoint.getHost())
+            .maxTotal(threads)
+            .maxPerRoute(threads)
+            .build());
+        Sensor sensor = Sensor.create("https://example.edu/sensors/load");
+        sensor.registerClient(client);
+
+        try {
+            LoadReport report = LoadGenerator.builder()
+                .sensor(sensor)
+                .threads(threads)
+                .batchSize(Integer.parseInt(value(opts, "batch", "10")))
+                .duration(TimeUnit.SECONDS.toMillis(Long.parseLong(value(opts, "seconds", "10"))))
+                .build()
+                .run();
+            System.out.println(report);
+        } finally {
+            client.close();
+            endpoint.stop();
+        }
+    }
+
+    private static String value(Map<String, String> opts, String key, String defaultValue) {
+        String value = opts.get(key);
+        return (value != null) ? value : defaultValue;
+    }
+}
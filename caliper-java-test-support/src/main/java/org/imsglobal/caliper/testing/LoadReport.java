@@ -0,0 +1,103 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.testing;
+
+import org.imsglobal.caliper.statistics.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a LoadGenerator run.  Latencies are the time spent in Sensor.send, which for
+ * buffering clients is the time to enqueue rather than to deliver.
+ */
+public class LoadReport {
+    private final long events;
+    private final long envelopes;
+    private final long failures;
+    private final long elapsedNanos;
+    private final LatencyHistogram.Snapshot latency;
+
+    /**
+     * Constructor
+     * @param events
+     * @param envelopes
+     * @param failures
+     * @param elapsedNanos
+     * @param latency
+     */
+    LoadReport(long events, long envelopes, long failures, long elapsedNanos, LatencyHistogram.Snapshot latency) {
+        this.events = events;
+        this.envelopes = envelopes;
+        this.failures = failures;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+    }
+
+    /**
+     * @return number of events sent
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * @return number of envelopes sent
+     */
+    public long getEnvelopes() {
+        return envelopes;
+    }
+
+    /**
+     * @return number of sends that threw
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return wall-clock duration of the run in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return sustained events per second
+     */
+    public double getEventsPerSecond() {
+        return (elapsedNanos > 0) ? events * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0.0;
+    }
+
+    /**
+     * @return distribution of Sensor.send latencies in nanoseconds
+     */
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("events=%d envelopes=%d failures=%d elapsed=%.1fs events/sec=%.0f "
+                + "latency(us) p50=%d p90=%d p99=%d p999=%d max=%d",
+            events, envelopes, failures, elapsedNanos / 1e9, getEventsPerSecond(),
+            TimeUnit.NANOSECONDS.toMicros(latency.getP50()), TimeUnit.NANOSECONDS.toMicros(latency.getP90()),
+            TimeUnit.NANOSECONDS.toMicros(latency.getP99()), TimeUnit.NANOSECONDS.toMicros(latency.getP999()),
+            TimeUnit.NANOSECONDS.toMicros(latency.getMax()));
+    }
+}
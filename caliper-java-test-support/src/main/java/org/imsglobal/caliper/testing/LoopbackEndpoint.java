@@ -0,0 +1,193 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.testing;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded Caliper endpoint bound to the loopback interface.  Every POST body is drained and
+ * answered with 200, after an optional latency.  A configurable fraction of requests is instead
+ * answered with 429 and a Retry-After header, and a further fraction with an error status, so
+ * that retry, backoff and circuit breaking can be exercised without a live endpoint.  Injected
+ * latency holds a handler thread, so size the thread pool for the expected concurrency.
+ */
+public class LoopbackEndpoint {
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile long latency = 0L;
+    private volatile double throttleRate = 0.0;
+    private volatile String retryAfter = "1";
+    private volatile double errorRate = 0.0;
+    private volatile int errorStatus = 500;
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory method.
+     * @param threads
+     * @throws IOException
+     */
+    private LoopbackEndpoint(int threads) throws IOException {
+        executor = Executors.newFixedThreadPool(threads,
+            new ThreadFactoryBuilder().setNameFormat("caliper-loopback-%d").setDaemon(true).build());
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleExchange(exchange);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Drain the request, apply the injected latency and answer with the drawn status.
+     * @param exchange
+     * @throws IOException
+     */
+    private void handleExchange(HttpExchange exchange) throws IOException {
+        try {
+            receivedBytes.addAndGet(ByteStreams.exhaust(exchange.getRequestBody()));
+            received.incrementAndGet();
+            if (latency > 0) {
+                try {
+                    Thread.sleep(latency);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < throttleRate) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", retryAfter);
+                exchange.sendResponseHeaders(429, -1);
+            } else if (roll < throttleRate + errorRate) {
+                errors.incrementAndGet();
+                exchange.sendResponseHeaders(errorStatus, -1);
+            } else {
+                exchange.sendResponseHeaders(200, -1);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Delay every response by the given number of milliseconds.
+     * @param latency
+     * @return this endpoint
+     */
+    public LoopbackEndpoint latency(long latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Answer the given fraction of requests with 429 Too Many Requests.
+     * @param throttleRate between 0 and 1
+     * @param retryAfter Retry-After header value, in seconds
+     * @return this endpoint
+     */
+    public LoopbackEndpoint throttleRate(double throttleRate, int retryAfter) {
+        this.throttleRate = throttleRate;
+        this.retryAfter = String.valueOf(retryAfter);
+        return this;
+    }
+
+    /**
+     * Answer the given fraction of requests with an error status.
+     * @param errorRate between 0 and 1
+     * @param errorStatus
+     * @return this endpoint
+     */
+    public LoopbackEndpoint errorRate(double errorRate, int errorStatus) {
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        return this;
+    }
+
+    /**
+     * Get the endpoint URL, suitable for HttpClientOptions.host.
+     * @return host
+     */
+    public String getHost() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * @return number of requests received
+     */
+    public long getReceived() {
+        return received.get();
+    }
+
+    /**
+     * @return number of request body bytes received
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    /**
+     * @return number of requests answered with 429
+     */
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    /**
+     * @return number of requests answered with the error status
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Stop serving and release the handler threads.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Factory method for starting a LoopbackEndpoint on an ephemeral port.
+     * @param threads handler threads
+     * @return LoopbackEndpoint
+     * @throws IOException
+     */
+    public static LoopbackEndpoint create(int threads) throws IOException {
+        return new LoopbackEndpoint(threads);
+    }
+}
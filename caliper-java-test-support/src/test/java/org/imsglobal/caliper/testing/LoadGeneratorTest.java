@@ -0,0 +1,86 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.testing;
+
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.clients.HttpClient;
+import org.imsglobal.caliper.clients.HttpClientOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LoadGeneratorTest {
+    private LoopbackEndpoint endpoint;
+    private HttpClient client;
+    private Sensor sensor;
+
+    @Before
+    public void setUp() throws Exception {
+        endpoint = LoopbackEndpoint.create(2);
+        client = HttpClient.create("urn:test:client", HttpClientOptions.builder()
+            .apiKey("faux_key")
+            .host(endpoint.getHost())
+            .maxRetries(0)
+            .build());
+        sensor = Sensor.create("https://example.edu/sensors/1");
+        sensor.registerClient(client);
+    }
+
+    @Test
+    public void deliversEventsToEndpoint() throws Exception {
+        LoadReport report = run();
+
+        assertTrue(report.getEvents() > 0);
+        assertEquals(report.getEvents(), report.getEnvelopes() * 5);
+        assertEquals(0, report.getFailures());
+        assertEquals(report.getEnvelopes(), endpoint.getReceived());
+        assertEquals(report.getEnvelopes(), report.getLatency().getCount());
+    }
+
+    @Test
+    public void countsFailedSends() throws Exception {
+        endpoint.errorRate(1.0, 503);
+
+        LoadReport report = run();
+
+        assertTrue(report.getFailures() > 0);
+        assertEquals(report.getEnvelopes(), report.getFailures());
+        assertEquals(report.getEnvelopes(), endpoint.getErrors());
+    }
+
+    @After
+    public void teardown() throws Exception {
+        client.close();
+        endpoint.stop();
+    }
+
+    private LoadReport run() throws InterruptedException {
+        return LoadGenerator.builder()
+            .sensor(sensor)
+            .mix(EventMix.uniform())
+            .threads(2)
+            .batchSize(5)
+            .duration(200L)
+            .build()
+            .run();
+    }
+}
@@ -1,31 +1,58 @@
 package org.imsglobal.caliper;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import org.imsglobal.caliper.clients.AsyncCaliperClient;
+import org.imsglobal.caliper.clients.AsyncClientOptions;
 import org.imsglobal.caliper.clients.CaliperClient;
+import org.imsglobal.caliper.clients.SerializedEnvelope;
 import org.imsglobal.caliper.statistics.Statistics;
+import org.imsglobal.caliper.validators.SensorValidator;
 import org.joda.time.DateTime;
 
 import javax.annotation.Nullable;
-import java.util.HashMap;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 
 /**
  * Concrete implementation of the Caliper Sensor interface.  Caliper Events and Entity describes
  * are sent via an Envelope.  Serialization and transmission of the Envelope is delegated to
  * one or more registered Clients which in turn delegate serialization and transmission to
  * an associated Requestor.  The delegation chain is thus Sensor to Client to Requestor.
+ *
+ * <p>A Sensor created with create(id) delivers each Envelope to its Clients one after another on the
+ * calling thread.  Every Client is tried even if an earlier one fails, but a slow Client delays the
+ * Clients after it and the caller; latency is not isolated.  A Sensor created with dispatch options
+ * fans each Envelope out to its Clients in parallel.  Every registered Client is given its own
+ * dispatch queue and worker threads, so a slow or failing Client neither delays nor aborts delivery
+ * to the others.  Latency and failures are recorded against each Client's own statistics, and the
+ * dispatchers are published by getMonitoredClients so that monitoring sees their queued backlog.</p>
+ *
+ * <p>The registered Clients are held in an immutable snapshot that is replaced atomically whenever a
+ * Client is registered or unregistered.  Sending reads the current snapshot without locking, so
+ * Clients may be added or removed at runtime without pausing traffic.</p>
  */
-public class Sensor {
+public class Sensor implements Closeable {
     private String id;
-    private Map<String, CaliperClient> clients = new HashMap<>();
+    private final AtomicReference<Registry> registry = new AtomicReference<>(Registry.EMPTY);
+    private final AsyncClientOptions dispatchOptions;
+    private volatile boolean closed;
 
     /**
      * Constructor. Scope is private to force use of the static factory method for instantiating a Sensor.
      */
-    private Sensor(String id) {
+    private Sensor(String id, AsyncClientOptions dispatchOptions) {
         this.id = id;
+        this.dispatchOptions = dispatchOptions;
     }
 
     /**
@@ -41,7 +68,24 @@ public class Sensor {
      * @param client the client object
      */
     public void registerClient(CaliperClient client) {
-        clients.put(client.getId(), client);
+        AsyncCaliperClient dispatcher = null;
+        if (dispatchOptions != null) {
+            if (closed) {
+                throw new IllegalStateException("Sensor is closed.");
+            }
+            dispatcher = AsyncCaliperClient.create(client, dispatchOptions);
+        }
+
+        Registry current;
+        do {
+            current = registry.get();
+        } while (!registry.compareAndSet(current, current.with(client, dispatcher)));
+        close(current.dispatcher(client.getId()));
+
+        // A concurrent close may have missed the dispatcher just published
+        if (closed) {
+            close(dispatcher);
+        }
     }
 
     /**
@@ -50,7 +94,11 @@ public class Sensor {
      * @return
      */
     public void unregisterClient(String key) {
-        clients.remove(key);
+        Registry current;
+        do {
+            current = registry.get();
+        } while (!registry.compareAndSet(current, current.without(key)));
+        close(current.dispatcher(key));
     }
 
     /**
@@ -59,15 +107,26 @@ public class Sensor {
      * @return
      */
     public CaliperClient getClient(String key) {
-        return clients.get(key);
+        return registry.get().byId.get(key);
     }
 
     /**
-     * Retrieve Map of clients.
+     * Retrieve an immutable snapshot of the registered clients.
      * @return clients
      */
     public Map<String, CaliperClient> getClients() {
-        return clients;
+        return registry.get().byId;
+    }
+
+    /**
+     * Retrieve an immutable snapshot of the clients to monitor, keyed by registered client id.  When
+     * the Sensor has dispatch options each client is represented by its dispatcher, which shares the
+     * client's statistics and reports the envelopes queued for the client as its backlog; otherwise
+     * the registered clients are returned.
+     * @return clients to monitor
+     */
+    public Map<String, CaliperClient> getMonitoredClients() {
+        return registry.get().monitored;
     }
 
     /**
@@ -87,7 +146,7 @@ public class Sensor {
      * @param envelope
      */
     public void send(CaliperClient client, Envelope envelope) {
-        if (clients.containsKey(client.getId())) {
+        if (registry.get().byId.containsKey(client.getId())) {
             client.send(envelope);
         } else {
             throw new IllegalArgumentException(client.getId() + " is not a registered Client.");
@@ -95,26 +154,115 @@ public class Sensor {
     }
 
     /**
-     * Delegate serialization and transmission of the Envelope to all registered Clients.
+     * Delegate serialization and transmission of the Envelope to all registered Clients and wait
+     * for every Client to finish.  A failing Client does not prevent delivery to the others; once
+     * all Clients have been tried the first failure is rethrown with any others suppressed.
      * @param envelope
      */
     public void send(Envelope envelope) {
-        if (clients.size() > 0) {
-            for(CaliperClient client: clients.values()){
-                client.send(envelope);
+        List<CompletableFuture<Void>> futures = dispatch(envelope);
+
+        RuntimeException failure = null;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                RuntimeException cause = (e.getCause() instanceof RuntimeException)
+                    ? (RuntimeException) e.getCause() : e;
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
             }
-        } else {
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Delegate serialization and transmission of the Envelope to all registered Clients without
+     * waiting for delivery.  The returned future completes once every Client has finished.  Without
+     * dispatch options the Clients are invoked on the calling thread before this method returns.
+     * @param envelope
+     * @return future
+     */
+    public CompletableFuture<Void> sendAsync(Envelope envelope) {
+        List<CompletableFuture<Void>> futures = dispatch(envelope);
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Hand the Envelope to each registered Client, either through its dispatcher or directly.  When
+     * there is more than one Client the Envelope is wrapped in a SerializedEnvelope for this send
+     * only, so that it is serialized once per data format and the bytes reused by every Client.
+     * @param original
+     * @return one future per Client
+     */
+    private List<CompletableFuture<Void>> dispatch(Envelope original) {
+        Registry snapshot = registry.get();
+        CaliperClient[] clients = snapshot.clients;
+        if (clients.length == 0) {
             throw new IllegalStateException("No Clients have been registered.");
         }
+
+        Envelope envelope = (clients.length > 1) ? SerializedEnvelope.of(original) : original;
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(clients.length);
+        if (dispatchOptions != null) {
+            for (int i = 0; i < clients.length; i++) {
+                futures.add(dispatch(clients[i].getId(), snapshot.dispatchers[i], envelope));
+            }
+        } else {
+            for (CaliperClient client : clients) {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                try {
+                    client.send(envelope);
+                    future.complete(null);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+                futures.add(future);
+            }
+        }
+
+        return futures;
+    }
+
+    /**
+     * Queue the Envelope on a Client's dispatcher.  A Client unregistered while the Envelope was in
+     * flight closes its dispatcher, which then rejects the Envelope; that is not treated as a failure.
+     * @param key
+     * @param dispatcher
+     * @param envelope
+     * @return future
+     */
+    private CompletableFuture<Void> dispatch(final String key, final AsyncCaliperClient dispatcher, Envelope envelope) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        dispatcher.sendAsync(envelope).whenComplete(new BiConsumer<Void, Throwable>() {
+            @Override
+            public void accept(Void result, Throwable failure) {
+                if (failure == null
+                    || (failure instanceof RejectedExecutionException && registry.get().dispatcher(key) != dispatcher)) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(failure);
+                }
+            }
+        });
+        return future;
     }
 
     /**
      * Returns a map where the keys are the identifying objects and the values are the corresponding statistics
-     * for that key's Client.
+     * for that key's Client.  A Client's dispatcher records into the same statistics; its backlog is
+     * reported by getMonitoredClients.
      * @return a map
      */
     public Map<String, Statistics> getStatistics() {
-        return Maps.transformValues(clients, new Function<CaliperClient, Statistics>() {
+        return Maps.transformValues(registry.get().byId, new Function<CaliperClient, Statistics>() {
             @Nullable
             @Override
             public Statistics apply(@Nullable CaliperClient client) {
@@ -123,11 +271,131 @@ public class Sensor {
         });
     }
 
+    /**
+     * Stop the per-Client dispatchers, waiting for queued envelopes to drain.  The registered
+     * Clients themselves are left open.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (AsyncCaliperClient dispatcher : registry.get().dispatchers) {
+            close(dispatcher);
+        }
+    }
+
+    /**
+     * Close a dispatcher that has been replaced or unregistered.
+     * @param dispatcher
+     */
+    private static void close(AsyncCaliperClient dispatcher) {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
     /**
      * Factory method for creating Sensors.
      * @return Sensors
      */
     public static Sensor create(String id) {
-        return new Sensor(id);
+        return new Sensor(id, null);
+    }
+
+    /**
+     * Factory method for creating Sensors that deliver to their Clients in parallel.  Each Client
+     * registered with the Sensor is given a dispatcher configured with the given options.
+     * @param id
+     * @param dispatchOptions
+     * @return Sensor
+     */
+    public static Sensor create(String id, AsyncClientOptions dispatchOptions) {
+        SensorValidator.chkOptions(dispatchOptions);
+        return new Sensor(id, dispatchOptions);
+    }
+
+    /**
+     * Immutable snapshot of the registered Clients.  The Clients and their dispatchers are held in
+     * parallel arrays so that the send path iterates plain arrays; when the Sensor has no dispatch
+     * options every dispatcher slot is null.
+     */
+    private static final class Registry {
+        private static final Registry EMPTY = new Registry(new CaliperClient[0], new AsyncCaliperClient[0]);
+
+        private final CaliperClient[] clients;
+        private final AsyncCaliperClient[] dispatchers;
+        private final Map<String, CaliperClient> byId;
+        private final Map<String, CaliperClient> monitored;
+
+        private Registry(CaliperClient[] clients, AsyncCaliperClient[] dispatchers) {
+            this.clients = clients;
+            this.dispatchers = dispatchers;
+
+            ImmutableMap.Builder<String, CaliperClient> builder = ImmutableMap.builder();
+            ImmutableMap.Builder<String, CaliperClient> monitoredBuilder = ImmutableMap.builder();
+            for (int i = 0; i < clients.length; i++) {
+                builder.put(clients[i].getId(), clients[i]);
+                monitoredBuilder.put(clients[i].getId(), (dispatchers[i] != null) ? dispatchers[i] : clients[i]);
+            }
+            this.byId = builder.build();
+            this.monitored = monitoredBuilder.build();
+        }
+
+        /**
+         * Copy the snapshot with the Client added, replacing any Client with the same identifier.
+         * @param client
+         * @param dispatcher
+         * @return registry
+         */
+        private Registry with(CaliperClient client, AsyncCaliperClient dispatcher) {
+            int index = indexOf(client.getId());
+            if (index < 0) {
+                index = clients.length;
+            }
+
+            CaliperClient[] copy = Arrays.copyOf(clients, Math.max(clients.length, index + 1));
+            AsyncCaliperClient[] dispatcherCopy = Arrays.copyOf(dispatchers, copy.length);
+            copy[index] = client;
+            dispatcherCopy[index] = dispatcher;
+            return new Registry(copy, dispatcherCopy);
+        }
+
+        /**
+         * Copy the snapshot with the Client removed.
+         * @param key
+         * @return registry
+         */
+        private Registry without(String key) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+
+            CaliperClient[] copy = new CaliperClient[clients.length - 1];
+            AsyncCaliperClient[] dispatcherCopy = new AsyncCaliperClient[copy.length];
+            System.arraycopy(clients, 0, copy, 0, index);
+            System.arraycopy(clients, index + 1, copy, index, copy.length - index);
+            System.arraycopy(dispatchers, 0, dispatcherCopy, 0, index);
+            System.arraycopy(dispatchers, index + 1, dispatcherCopy, index, copy.length - index);
+            return new Registry(copy, dispatcherCopy);
+        }
+
+        /**
+         * Get the dispatcher of a Client.
+         * @param key
+         * @return dispatcher or null
+         */
+        private AsyncCaliperClient dispatcher(String key) {
+            int index = indexOf(key);
+            return (index < 0) ? null : dispatchers[index];
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < clients.length; i++) {
+                if (clients[i].getId().equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
     }
-}
\ No newline at end of file
+}
@@ -18,14 +18,9 @@
 
 package org.imsglobal.caliper.clients;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
-import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
-import com.fasterxml.jackson.datatype.joda.JodaModule;
 import org.imsglobal.caliper.Envelope;
-import org.imsglobal.caliper.databind.JxnCoercibleSimpleModule;
+import org.imsglobal.caliper.databind.JxnMapper;
 import org.imsglobal.caliper.statistics.Statistics;
 import org.imsglobal.caliper.validators.SensorValidator;
 
@@ -80,23 +75,53 @@ public abstract class AbstractClient implements CaliperClient {
     }
 
     /**
-     * Serialize Caliper envelope.
+     * Serialize Caliper envelope as JSON text, regardless of the configured data format.
      * @param envelope
      * @return String
      * @throws JsonProcessingException
      */
     protected String serializeEnvelope(Envelope envelope) throws JsonProcessingException {
-        // Create mapper and serialize the envelope
-        SimpleFilterProvider provider = new SimpleFilterProvider()
-            .setFailOnUnknownId(true);
+        JxnMapper mapper = JxnMapper.getDefault();
+        return (options.isDeduplicateEntities() ? mapper.deduplicating() : mapper).writeValueAsString(envelope);
+    }
 
-        ObjectMapper mapper = new ObjectMapper()
-            .setDateFormat(new ISO8601DateFormat())
-            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY)
-            .setFilterProvider(provider)
-            .registerModules(new JodaModule(), new JxnCoercibleSimpleModule());
+    /**
+     * Get the mapper that serializes envelopes for this client in the configured data format.
+     * @return JxnMapper
+     */
+    protected JxnMapper getMapper() {
+        JxnMapper mapper = JxnMapper.forFormat(options.getDataFormat());
+        return options.isDeduplicateEntities() ? mapper.deduplicating() : mapper;
+    }
+
+    /**
+     * Serialize Caliper envelope in the configured data format, recording the time taken.  The bytes
+     * of a SerializedEnvelope are shared with any other Client using the same mapper.
+     * @param envelope
+     * @return serialized envelope
+     * @throws JsonProcessingException
+     */
+    protected byte[] writeEnvelope(Envelope envelope) throws JsonProcessingException {
+        long start = System.nanoTime();
+        try {
+            return SerializedEnvelope.bytes(envelope, getMapper());
+        } finally {
+            statistics.getSerializeLatency().recordSince(start);
+        }
+    }
 
-        return mapper.writeValueAsString(envelope);
+    /**
+     * Get the mapper used by a client, following any decorators to the client that serializes
+     * envelopes.  Clients that do not extend AbstractClient are assumed to use the default mapper.
+     * @param client
+     * @return JxnMapper
+     */
+    static JxnMapper mapperOf(CaliperClient client) {
+        CaliperClient target = client;
+        while (target instanceof DelegatingClient) {
+            target = ((DelegatingClient) target).getDelegate();
+        }
+        return (target instanceof AbstractClient) ? ((AbstractClient) target).getMapper() : JxnMapper.getDefault();
     }
 
     /**
@@ -0,0 +1,314 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.BackpressurePolicy;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.imsglobal.caliper.validators.SensorValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Decorates a Sensor Client with asynchronous dispatch.  Envelopes are placed on a bounded queue
+ * that is drained by a pool of worker threads which delegate transmission to the wrapped client.
+ * The caller is released as soon as the envelope is queued; when the queue is full the configured
+ * BackpressurePolicy decides whether the caller blocks, an envelope is dropped or the caller sends
+ * the envelope itself.  If the wrapped client is itself an AsyncClient, a worker waits before
+ * each send while queueCapacity envelopes are already in flight, so the number of outstanding
+ * sends stays bounded even though the workers are not held for the duration of each send.
+ */
+public class AsyncCaliperClient implements AsyncClient, BufferingClient, DelegatingClient, Closeable {
+    private final CaliperClient delegate;
+    private final AsyncClientOptions options;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore inFlight;
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncCaliperClient.class);
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory method.
+     * @param delegate
+     * @param options
+     */
+    private AsyncCaliperClient(CaliperClient delegate, AsyncClientOptions options) {
+        SensorValidator.chkOptions(options);
+
+        this.delegate = delegate;
+        this.options = options;
+        this.queue = new ArrayBlockingQueue<>(options.getQueueCapacity());
+        this.inFlight = new Semaphore(options.getQueueCapacity());
+        this.executor = new ThreadPoolExecutor(options.getWorkers(), options.getWorkers(),
+            0L, TimeUnit.MILLISECONDS, queue,
+            new ThreadFactoryBuilder().setNameFormat("caliper-async-%d").setDaemon(true).build(),
+            new BackpressureHandler(options.getBackpressurePolicy()));
+        this.executor.prestartAllCoreThreads();
+    }
+
+    /**
+     * Get identifier.  The decorator shares the identifier of the wrapped client.
+     * @return id
+     */
+    @Nonnull
+    public String getId() {
+        return delegate.getId();
+    }
+
+    /**
+     * Retrieve options
+     * @return options
+     */
+    public AsyncClientOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Get statistics.  The decorator shares the statistics of the wrapped client.
+     * @return statistics
+     */
+    @Nonnull
+    public Statistics getStatistics() {
+        return delegate.getStatistics();
+    }
+
+    /**
+     * Retrieve the wrapped client.
+     * @return delegate
+     */
+    @Override
+    public CaliperClient getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Get the number of envelopes waiting to be sent.
+     * @return queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Get the number of queued envelopes, plus the backlog of the wrapped client if it buffers.
+     * @return backlog
+     */
+    @Override
+    public int getBacklog() {
+        int backlog = getQueueDepth();
+        if (delegate instanceof BufferingClient) {
+            backlog += ((BufferingClient) delegate).getBacklog();
+        }
+        return backlog;
+    }
+
+    /**
+     * Queue the Envelope for transmission.
+     * @param envelope
+     */
+    @Override
+    public void send(Envelope envelope) {
+        sendAsync(envelope);
+    }
+
+    /**
+     * Queue the Envelope for transmission.  The returned future completes once the wrapped client
+     * has sent the envelope, or completes exceptionally if the send failed or the envelope was dropped.
+     * @param envelope
+     * @return future
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(Envelope envelope) {
+        SendTask task = new SendTask(envelope);
+        executor.execute(task);
+        return task.future;
+    }
+
+    /**
+     * Stop accepting envelopes and wait up to the configured shutdown timeout for queued
+     * envelopes to be sent, including envelopes in flight on a wrapped AsyncClient.  Envelopes
+     * still queued after the timeout are abandoned.
+     */
+    @Override
+    public void close() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(options.getShutdownTimeout());
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(options.getShutdownTimeout(), TimeUnit.MILLISECONDS)) {
+                abandon(executor.shutdownNow());
+            } else if (inFlight.tryAcquire(options.getQueueCapacity(), Math.max(0L, deadline - System.nanoTime()),
+                    TimeUnit.NANOSECONDS)) {
+                inFlight.release(options.getQueueCapacity());
+            } else {
+                log.warn("Closed with envelope(s) still in flight.");
+            }
+        } catch (InterruptedException e) {
+            abandon(executor.shutdownNow());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fail the futures of envelopes that will never be sent.
+     * @param tasks
+     */
+    private void abandon(List<Runnable> tasks) {
+        if (tasks.size() > 0) {
+            log.warn("Abandoning " + tasks.size() + " queued envelope(s) on close.");
+        }
+        for (Runnable task : tasks) {
+            ((SendTask) task).reject("client closed before envelope was sent");
+        }
+    }
+
+    /**
+     * Factory method for instantiating an AsyncCaliperClient.
+     * @param delegate
+     * @param options
+     * @return AsyncCaliperClient
+     */
+    public static AsyncCaliperClient create(CaliperClient delegate, AsyncClientOptions options) {
+        return new AsyncCaliperClient(delegate, options);
+    }
+
+    /**
+     * Unit of work that sends a single Envelope and completes its future.
+     */
+    private class SendTask implements Runnable {
+        private final Envelope envelope;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final long queuedAt = System.nanoTime();
+
+        private SendTask(Envelope envelope) {
+            this.envelope = envelope;
+        }
+
+        @Override
+        public void run() {
+            getStatistics().getQueueLatency().recordSince(queuedAt);
+            try {
+                if (delegate instanceof AsyncClient) {
+                    inFlight.acquire();
+                    CompletableFuture<Void> sent;
+                    try {
+                        sent = ((AsyncClient) delegate).sendAsync(envelope);
+                    } catch (RuntimeException | Error e) {
+                        inFlight.release();
+                        throw e;
+                    }
+                    sent.whenComplete(new BiConsumer<Void, Throwable>() {
+                        @Override
+                        public void accept(Void result, Throwable failure) {
+                            inFlight.release();
+                            if (failure == null) {
+                                future.complete(null);
+                            } else {
+                                future.completeExceptionally(failure);
+                            }
+                        }
+                    });
+                } else {
+                    delegate.send(envelope);
+                    future.complete(null);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reject("interrupted while waiting for an in-flight send to complete");
+            } catch (RuntimeException e) {
+                log.warn("Asynchronous send failed: " + e.getMessage());
+                future.completeExceptionally(e);
+            } catch (Error e) {
+                // Never leave the caller waiting; the error is rethrown to the worker thread
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        private void reject(String reason) {
+            future.completeExceptionally(new RejectedExecutionException(reason));
+        }
+
+        private void drop() {
+            getStatistics().updateDropped(1);
+            reject("dispatch queue is full");
+        }
+    }
+
+    /**
+     * Applies the BackpressurePolicy to envelopes that do not fit in the dispatch queue.
+     */
+    private class BackpressureHandler implements RejectedExecutionHandler {
+        private final BackpressurePolicy policy;
+
+        private BackpressureHandler(BackpressurePolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            SendTask task = (SendTask) runnable;
+
+            if (executor.isShutdown()) {
+                task.reject("client is closed");
+                return;
+            }
+
+            switch (policy) {
+                case BLOCK:
+                    try {
+                        queue.put(task);
+                        if (executor.isShutdown() && queue.remove(task)) {
+                            task.reject("client is closed");
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        task.reject("interrupted while waiting for queue capacity");
+                    }
+                    break;
+                case DROP_OLDEST:
+                    Runnable oldest = queue.poll();
+                    if (oldest != null) {
+                        ((SendTask) oldest).drop();
+                    }
+                    executor.execute(task);
+                    break;
+                case DROP_NEWEST:
+                    task.drop();
+                    break;
+                case CALLER_RUNS:
+                    task.run();
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.config.BackpressurePolicy;
+
+/**
+ * Asynchronous client options.  Governs the size of the dispatch queue, the number of worker
+ * threads draining it and the policy applied when the queue is full.
+ */
+public class AsyncClientOptions implements CaliperClientOptions {
+    private final int queueCapacity;
+    private final int workers;
+    private final BackpressurePolicy backpressurePolicy;
+    private final long shutdownTimeout;
+
+    /**
+     * Default settings.
+     */
+    public static final int QUEUE_CAPACITY = 1000;
+    public static final int WORKERS = 1;
+    public static final BackpressurePolicy BACKPRESSURE_POLICY = BackpressurePolicy.BLOCK;
+    public static final long SHUTDOWN_TIMEOUT = 10000L;
+
+    /**
+     * Constructor
+     * @param builder
+     */
+    private AsyncClientOptions(OptionsBuilder builder) {
+        this.queueCapacity = (builder.queueCapacity > 0) ? builder.queueCapacity : QUEUE_CAPACITY;
+        this.workers = (builder.workers > 0) ? builder.workers : WORKERS;
+        this.backpressurePolicy = (builder.backpressurePolicy != null) ? builder.backpressurePolicy : BACKPRESSURE_POLICY;
+        this.shutdownTimeout = (builder.shutdownTimeout >= 0) ? builder.shutdownTimeout : SHUTDOWN_TIMEOUT;
+    }
+
+    /**
+     * Get the maximum number of envelopes that may wait in the dispatch queue.
+     * @return queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Get the number of worker threads that drain the dispatch queue.
+     * @return worker count
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Get the policy applied when the dispatch queue is full.
+     * @return backpressure policy
+     */
+    public BackpressurePolicy getBackpressurePolicy() {
+        return backpressurePolicy;
+    }
+
+    /**
+     * Get the number of milliseconds to wait for queued envelopes to drain on close.
+     * @return shutdown timeout
+     */
+    public long getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    /**
+     * Builder class provides a fluid interface for setting options properties.
+     */
+    public static class OptionsBuilder {
+        private int queueCapacity = 0;
+        private int workers = 0;
+        private BackpressurePolicy backpressurePolicy;
+        private long shutdownTimeout = -1L;
+
+        /**
+         * Constructor
+         */
+        public OptionsBuilder() {
+
+        }
+
+        /**
+         * @param queueCapacity
+         * @return builder
+         */
+        public OptionsBuilder queueCapacity(final int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @param workers
+         * @return builder
+         */
+        public OptionsBuilder workers(final int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * @param backpressurePolicy
+         * @return builder
+         */
+        public OptionsBuilder backpressurePolicy(final BackpressurePolicy backpressurePolicy) {
+            this.backpressurePolicy = backpressurePolicy;
+            return this;
+        }
+
+        /**
+         * @param shutdownTimeout
+         * @return builder
+         */
+        public OptionsBuilder shutdownTimeout(final long shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+            return this;
+        }
+
+        /**
+         * Client invokes build method in order to create an immutable object.
+         * @return a new instance of Options.
+         */
+        public AsyncClientOptions build() {
+            return new AsyncClientOptions(this);
+        }
+    }
+
+    /**
+     * Static Factory method.
+     * @return new builder instance
+     */
+    public static OptionsBuilder builder() {
+        return new OptionsBuilder();
+    }
+}
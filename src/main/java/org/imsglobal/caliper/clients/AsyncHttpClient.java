@@ -0,0 +1,283 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Compression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Provisions the Sensor with a non-blocking HTTP client.  Requests are multiplexed over a pooled set
+ * of connections by a small number of I/O dispatch threads, so the number of envelopes in flight is
+ * bounded by the connection pool rather than by the number of sending threads.  Completion is
+ * reported asynchronously to the client Statistics and to the future returned by sendAsync.
+ * Shares the HttpClientOptions surface with the blocking HttpClient, except validateAfterInactivity:
+ * the I/O reactor detects connections closed by the peer while they sit in the pool, so pooled
+ * connections need not be revalidated before reuse and the option is ignored.
+ */
+public class AsyncHttpClient extends AbstractClient implements AsyncClient, Closeable {
+    private final CloseableHttpAsyncClient httpClient;
+    private final PoolingNHttpClientConnectionManager manager;
+    private final ScheduledExecutorService scheduler;
+    private final ContentType contentType;
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncHttpClient.class);
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory method for instantiating
+     * an AsyncHttpClient.
+     * @param id
+     * @param options
+     */
+    private AsyncHttpClient(String id, HttpClientOptions options) {
+        super(id, options);
+        this.manager = createConnectionManager(options);
+        this.httpClient = initialize(options, manager);
+        this.httpClient.start();
+        this.contentType = HttpClient.contentType(options);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("caliper-async-http-%d").setDaemon(true).build());
+
+        // The async client has no built-in evictor, so expired and idle connections are closed here
+        final long idleEviction = options.getIdleEviction();
+        this.scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                manager.closeExpiredConnections();
+                manager.closeIdleConnections(idleEviction, TimeUnit.MILLISECONDS);
+            }
+        }, idleEviction, idleEviction, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Build a connection pool that applies the timeout and pool size options.
+     * @param options
+     * @return PoolingNHttpClientConnectionManager
+     */
+    private static PoolingNHttpClientConnectionManager createConnectionManager(HttpClientOptions options) {
+        IOReactorConfig reactorConfig = IOReactorConfig.custom()
+            .setConnectTimeout(options.getConnTimeout())
+            .setSoTimeout(options.getSocketTimeout())
+            .build();
+
+        PoolingNHttpClientConnectionManager manager;
+        try {
+            manager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig));
+        } catch (IOReactorException e) {
+            throw new IllegalStateException("Unable to start I/O reactor.", e);
+        }
+        manager.setMaxTotal(options.getMaxTotal());
+        manager.setDefaultMaxPerRoute(options.getMaxPerRoute());
+        return manager;
+    }
+
+    /**
+     * Build an Apache HttpAsyncClient over the connection pool that applies the request and keep-alive options.
+     * @param options
+     * @param manager
+     * @return CloseableHttpAsyncClient
+     */
+    private static CloseableHttpAsyncClient initialize(HttpClientOptions options, PoolingNHttpClientConnectionManager manager) {
+        return HttpAsyncClients.custom()
+            .setConnectionManager(manager)
+            .setDefaultRequestConfig(HttpClient.requestConfig(options))
+            .setKeepAliveStrategy(HttpClient.keepAliveStrategy(options))
+            .build();
+    }
+
+    /**
+     * Post envelope without waiting for the response.
+     * @param envelope
+     */
+    @Override
+    public void send(Envelope envelope) {
+        sendAsync(envelope);
+    }
+
+    /**
+     * Post envelope.  The envelope is serialized on the calling thread; the returned future completes
+     * on an I/O dispatch thread once the endpoint has responded.  Failed attempts are retried
+     * according to the retry options without tying up a thread during the backoff delay.
+     * @param envelope
+     * @return future
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(Envelope envelope) {
+        final long start = System.nanoTime();
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        future.whenComplete(new BiConsumer<Void, Throwable>() {
+            @Override
+            public void accept(Void result, Throwable failure) {
+                getStatistics().getEndToEndLatency().recordSince(start);
+            }
+        });
+
+        NByteArrayEntity entity;
+        try {
+            entity = createEntity(envelope);
+        } catch (IOException e) {
+            updateStatistics(Boolean.FALSE);
+            log.warn("Unable to create HTTP POST entity: " + e.getMessage(), e);
+            future.completeExceptionally(new CaliperSendException("Unable to create HTTP POST entity: " + e.getMessage(), e,
+                !HttpClient.isSerializationFailure(e)));
+            return future;
+        }
+
+        HttpPost post = new HttpPost(this.getOptions().getHost());
+        post.setHeader("Authorization", this.getOptions().getApiKey());
+        post.setHeader("Content-Type", this.getOptions().getContentType());
+        post.setEntity(entity);
+
+        execute(post, 0, future);
+        return future;
+    }
+
+    /**
+     * Execute one attempt of the POST, scheduling the next attempt if this one fails and may be retried.
+     * @param post
+     * @param attempt
+     * @param future
+     */
+    private void execute(final HttpPost post, final int attempt, final CompletableFuture<Void> future) {
+        final long attemptStart = System.nanoTime();
+        httpClient.execute(post, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                getStatistics().getRoundTripLatency().recordSince(attemptStart);
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode < 200 || statusCode > 202) {
+                    if (!retry(statusCode, RetryBackoff.retryAfter(response))) {
+                        updateStatistics(Boolean.FALSE);
+                        log.warn("HTTP POST failed; status code=" + statusCode);
+                        future.completeExceptionally(new CaliperSendException(statusCode));
+                    }
+                } else {
+                    if (log.isDebugEnabled()) {
+                        log.debug(response.getStatusLine().toString());
+                    }
+                    updateStatistics(Boolean.TRUE);
+                    future.complete(null);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                getStatistics().getRoundTripLatency().recordSince(attemptStart);
+                if (!retry(-1, -1L)) {
+                    updateStatistics(Boolean.FALSE);
+                    log.warn("HTTP POST failed: " + e.getMessage(), e);
+                    future.completeExceptionally(new CaliperSendException("HTTP POST failed: " + e.getMessage(), e));
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                updateStatistics(Boolean.FALSE);
+                future.completeExceptionally(new CancellationException("HTTP POST cancelled"));
+            }
+
+            private boolean retry(int statusCode, long retryAfter) {
+                if (!RetryBackoff.shouldRetry(getOptions(), attempt, statusCode)) {
+                    return false;
+                }
+
+                try {
+                    scheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                execute(post, attempt + 1, future);
+                            } catch (RuntimeException e) {
+                                updateStatistics(Boolean.FALSE);
+                                future.completeExceptionally(e);
+                            }
+                        }
+                    }, RetryBackoff.delay(getOptions(), attempt, retryAfter), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    return false;
+                }
+
+                getStatistics().updateRetried(1);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Serialize the envelope, compressing the body if it meets the configured compression threshold.
+     * @param envelope
+     * @return NByteArrayEntity
+     * @throws IOException
+     */
+    private NByteArrayEntity createEntity(Envelope envelope) throws IOException {
+        byte[] body = writeEnvelope(envelope);
+        if (!EnvelopeEncoder.shouldEncode(this.getOptions(), body.length)) {
+            return new NByteArrayEntity(body, contentType);
+        }
+
+        Compression compression = this.getOptions().getCompression();
+        NByteArrayEntity entity = new NByteArrayEntity(EnvelopeEncoder.encode(body, compression), contentType);
+        entity.setContentEncoding(compression.value());
+        return entity;
+    }
+
+    /**
+     * Shut down the I/O reactor and connection pool.  Requests still in flight are cancelled,
+     * requests awaiting a retry fail when their retry falls due and idle connection eviction stops.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+        httpClient.close();
+    }
+
+    /**
+     * Factory method for instantiating an AsyncHttpClient.
+     * @param id
+     * @param options
+     * @return AsyncHttpClient
+     */
+    public static AsyncHttpClient create(String id, HttpClientOptions options) {
+        return new AsyncHttpClient(id, options);
+    }
+}
@@ -0,0 +1,421 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.databind.JxnMapper;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.imsglobal.caliper.validators.SensorValidator;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates a Sensor Client with micro-batching.  The data items of each Envelope sent to this
+ * client are coalesced into a pending batch that is handed to the wrapped client as a single
+ * Envelope once the max-events, max-bytes or max-linger threshold is reached.  Items are only
+ * coalesced with items that share the same sensor and dataVersion; a change of either flushes
+ * the pending batch first.  Once the client is closed, Envelopes are passed to the wrapped
+ * client unbatched.
+ *
+ * <p>The size checked against max-bytes is an estimate.  The first few items of each class are
+ * measured with the wrapped client's mapper, and after that one item in every sixteen; the other
+ * items are charged the running average for their class.  Measuring happens before the batch lock
+ * is taken.</p>
+ */
+public class BatchingCaliperClient implements BufferingClient, DelegatingClient, Closeable {
+    private final CaliperClient delegate;
+    private final BatchingClientOptions options;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService flusher;
+    private final JxnMapper mapper;
+    private final ConcurrentMap<Class<?>, SizeEstimate> estimates = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+
+    private List<Object> batch = new ArrayList<>();
+    private String sensorId;
+    private String dataVersion;
+    private long batchBytes;
+    private long generation;
+    private ScheduledFuture<?> lingerTimer;
+    private boolean closed;
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingCaliperClient.class);
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory method.
+     * @param delegate
+     * @param options
+     */
+    private BatchingCaliperClient(CaliperClient delegate, BatchingClientOptions options) {
+        SensorValidator.chkOptions(options);
+
+        this.delegate = delegate;
+        this.options = options;
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+            new ThreadFactoryBuilder().setNameFormat("caliper-batch-%d").setDaemon(true).build());
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+        this.flusher = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("caliper-batch-flush-%d").setDaemon(true).build());
+        this.mapper = AbstractClient.mapperOf(delegate);
+    }
+
+    /**
+     * Get identifier.  The decorator shares the identifier of the wrapped client.
+     * @return id
+     */
+    @Nonnull
+    public String getId() {
+        return delegate.getId();
+    }
+
+    /**
+     * Retrieve options
+     * @return options
+     */
+    public BatchingClientOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Get statistics.  The decorator shares the statistics of the wrapped client.
+     * @return statistics
+     */
+    @Nonnull
+    public Statistics getStatistics() {
+        return delegate.getStatistics();
+    }
+
+    /**
+     * Retrieve the wrapped client.
+     * @return delegate
+     */
+    @Override
+    public CaliperClient getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Get the number of events waiting in the pending batch.
+     * @return batch size
+     */
+    public int getBatchSize() {
+        synchronized (lock) {
+            return batch.size();
+        }
+    }
+
+    /**
+     * Get the number of events in the pending batch.
+     * @return backlog
+     */
+    @Override
+    public int getBacklog() {
+        return getBatchSize();
+    }
+
+    /**
+     * Add the Envelope data items to the pending batch.  Any batch that reaches a threshold is
+     * sent on the calling thread; wrap the delegate in an AsyncCaliperClient to avoid this.  Every
+     * ready batch is sent even if an earlier one fails; the first failure is then rethrown with any
+     * others suppressed.  After close, the Envelope is sent unbatched on the calling thread.
+     * @param envelope
+     */
+    @Override
+    public void send(Envelope envelope) {
+        List<Object> data = envelope.getData();
+        long[] sizes = new long[data.size()];
+        if (options.getMaxBytes() > 0) {
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = estimate(data.get(i));
+            }
+        }
+
+        List<Envelope> ready = new ArrayList<>();
+
+        synchronized (lock) {
+            if (closed) {
+                ready.add(envelope);
+            } else {
+                coalesce(envelope, sizes, ready);
+            }
+        }
+
+        RuntimeException failure = null;
+        for (Envelope batched : ready) {
+            try {
+                delegate.send(batched);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Add the Envelope data items to the pending batch, collecting each batch that reaches a
+     * threshold.  Must be called while holding the lock.
+     * @param envelope
+     * @param sizes estimated size of each data item
+     * @param ready batches to be sent
+     */
+    private void coalesce(Envelope envelope, long[] sizes, List<Envelope> ready) {
+        List<Object> data = envelope.getData();
+
+        if (!batch.isEmpty() && !(Objects.equals(sensorId, envelope.getSensorId())
+                && Objects.equals(dataVersion, envelope.getDataVersion()))) {
+            ready.add(drain());
+        }
+
+        for (int i = 0; i < sizes.length; i++) {
+            Object item = data.get(i);
+            long size = sizes[i];
+
+            if (!batch.isEmpty() && options.getMaxBytes() > 0 && batchBytes + size > options.getMaxBytes()) {
+                ready.add(drain());
+            }
+
+            if (batch.isEmpty()) {
+                open(envelope);
+            }
+
+            batch.add(item);
+            batchBytes += size;
+
+            if (batch.size() >= options.getMaxEvents()
+                    || (options.getMaxBytes() > 0 && batchBytes >= options.getMaxBytes())) {
+                ready.add(drain());
+            }
+        }
+    }
+
+    /**
+     * Send the pending batch, if any, on the calling thread.
+     */
+    public void flush() {
+        Envelope batched;
+        synchronized (lock) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            batched = drain();
+        }
+        delegate.send(batched);
+    }
+
+    /**
+     * Stop the linger timer, wait up to the configured shutdown timeout for batches already handed
+     * to the flush thread and then flush the pending batch.  Batches still waiting for the flush
+     * thread after the timeout are abandoned.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(options.getShutdownTimeout(), TimeUnit.MILLISECONDS)) {
+                abandon(flusher.shutdownNow());
+            }
+        } catch (InterruptedException e) {
+            abandon(flusher.shutdownNow());
+            Thread.currentThread().interrupt();
+        }
+
+        Envelope batched = null;
+        synchronized (lock) {
+            closed = true;
+            if (!batch.isEmpty()) {
+                batched = drain();
+            }
+        }
+        if (batched != null) {
+            delegate.send(batched);
+        }
+    }
+
+    /**
+     * Log batches that will never be sent.
+     * @param tasks
+     */
+    private void abandon(List<Runnable> tasks) {
+        if (tasks.size() > 0) {
+            log.warn("Abandoning " + tasks.size() + " batch(es) on close.");
+        }
+    }
+
+    /**
+     * Start a new batch and arm its linger timer.  Must be called while holding the lock.
+     * @param envelope
+     */
+    private void open(Envelope envelope) {
+        final long armed = generation;
+
+        sensorId = envelope.getSensorId();
+        dataVersion = envelope.getDataVersion();
+
+        try {
+            lingerTimer = scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    linger(armed);
+                }
+            }, options.getMaxLinger(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed; the pending batch is sent by close() or the next explicit flush().
+        }
+    }
+
+    /**
+     * Drain the batch identified by the generation, unless a threshold already flushed it, and hand
+     * it to the flush thread.  The timer thread never blocks on the wrapped client, so the linger
+     * timers of later batches fire on time.
+     * @param armed
+     */
+    private void linger(long armed) {
+        final Envelope batched;
+        synchronized (lock) {
+            if (armed != generation || batch.isEmpty()) {
+                return;
+            }
+            batched = drain();
+        }
+
+        flusher.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    delegate.send(batched);
+                } catch (RuntimeException e) {
+                    log.warn("Batch send failed: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Wrap the pending batch in an Envelope and reset.  Must be called while holding the lock.
+     * @return envelope
+     */
+    private Envelope drain() {
+        Envelope batched = new Envelope(sensorId, DateTime.now(), dataVersion, batch);
+
+        batch = new ArrayList<>();
+        batchBytes = 0L;
+        generation++;
+
+        if (lingerTimer != null) {
+            lingerTimer.cancel(false);
+            lingerTimer = null;
+        }
+
+        return batched;
+    }
+
+    /**
+     * Estimate the serialized size of a data item.  Items are measured while their class has few
+     * samples and periodically after that; the rest are charged the running average of their class.
+     * @param item
+     * @return size in bytes
+     */
+    private long estimate(Object item) {
+        SizeEstimate estimate = estimates.get(item.getClass());
+        if (estimate == null) {
+            estimate = new SizeEstimate();
+            SizeEstimate existing = estimates.putIfAbsent(item.getClass(), estimate);
+            if (existing != null) {
+                estimate = existing;
+            }
+        }
+
+        long sample = estimate.samples.getAndIncrement();
+        if (sample >= SizeEstimate.WARMUP && sample % SizeEstimate.INTERVAL != 0) {
+            return estimate.average;
+        }
+
+        long size = measure(item);
+        estimate.average = (sample == 0) ? size : (estimate.average * 7 + size) / 8;
+        return size;
+    }
+
+    /**
+     * Measure the serialized size of a data item in the wrapped client's format.
+     * @param item
+     * @return size in bytes
+     */
+    private long measure(Object item) {
+        CountingOutputStream out = new CountingOutputStream(ByteStreams.nullOutputStream());
+        try {
+            mapper.writeValue(out, item);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to serialize data item.", e);
+        }
+        return out.getCount();
+    }
+
+    /**
+     * Factory method for instantiating a BatchingCaliperClient.
+     * @param delegate
+     * @param options
+     * @return BatchingCaliperClient
+     */
+    public static BatchingCaliperClient create(CaliperClient delegate, BatchingClientOptions options) {
+        return new BatchingCaliperClient(delegate, options);
+    }
+
+    /**
+     * Running estimate of the serialized size of one class of data item.  Updates are not atomic;
+     * a lost update only skews the average slightly.
+     */
+    private static final class SizeEstimate {
+        private static final long WARMUP = 8L;
+        private static final long INTERVAL = 16L;
+
+        private final AtomicLong samples = new AtomicLong();
+        private volatile long average;
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+/**
+ * Batching client options.  A batch is flushed as soon as any one of the thresholds is reached.
+ */
+public class BatchingClientOptions implements CaliperClientOptions {
+    private final int maxEvents;
+    private final long maxBytes;
+    private final long maxLinger;
+    private final long shutdownTimeout;
+
+    /**
+     * Default thresholds.  A maxBytes value of zero disables the byte threshold, which avoids
+     * serializing each event an additional time in order to measure it.
+     */
+    public static final int MAX_EVENTS = 100;
+    public static final long MAX_BYTES = 0L;
+    public static final long MAX_LINGER = 1000L;
+    public static final long SHUTDOWN_TIMEOUT = 10000L;
+
+    /**
+     * Constructor
+     * @param builder
+     */
+    private BatchingClientOptions(OptionsBuilder builder) {
+        this.maxEvents = (builder.maxEvents > 0) ? builder.maxEvents : MAX_EVENTS;
+        this.maxBytes = (builder.maxBytes > 0) ? builder.maxBytes : MAX_BYTES;
+        this.maxLinger = (builder.maxLinger > 0) ? builder.maxLinger : MAX_LINGER;
+        this.shutdownTimeout = (builder.shutdownTimeout >= 0) ? builder.shutdownTimeout : SHUTDOWN_TIMEOUT;
+    }
+
+    /**
+     * Get the maximum number of events coalesced into a single Envelope.
+     * @return max events
+     */
+    public int getMaxEvents() {
+        return maxEvents;
+    }
+
+    /**
+     * Get the maximum serialized size in bytes of the events coalesced into a single Envelope.
+     * @return max bytes; zero if disabled
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Get the maximum number of milliseconds an event may wait before its batch is flushed.
+     * @return max linger time
+     */
+    public long getMaxLinger() {
+        return maxLinger;
+    }
+
+    /**
+     * Get the number of milliseconds to wait on close for batches already handed to the flush thread.
+     * @return shutdown timeout
+     */
+    public long getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    /**
+     * Builder class provides a fluid interface for setting options properties.
+     */
+    public static class OptionsBuilder {
+        private int maxEvents = 0;
+        private long maxBytes = 0L;
+        private long maxLinger = 0L;
+        private long shutdownTimeout = -1L;
+
+        /**
+         * Constructor
+         */
+        public OptionsBuilder() {
+
+        }
+
+        /**
+         * @param maxEvents
+         * @return builder
+         */
+        public OptionsBuilder maxEvents(final int maxEvents) {
+            this.maxEvents = maxEvents;
+            return this;
+        }
+
+        /**
+         * @param maxBytes
+         * @return builder
+         */
+        public OptionsBuilder maxBytes(final long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * @param maxLinger
+         * @return builder
+         */
+        public OptionsBuilder maxLinger(final long maxLinger) {
+            this.maxLinger = maxLinger;
+            return this;
+        }
+
+        /**
+         * @param shutdownTimeout
+         * @return builder
+         */
+        public OptionsBuilder shutdownTimeout(final long shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+            return this;
+        }
+
+        /**
+         * Client invokes build method in order to create an immutable object.
+         * @return a new instance of Options.
+         */
+        public BatchingClientOptions build() {
+            return new BatchingClientOptions(this);
+        }
+    }
+
+    /**
+     * Static Factory method.
+     * @return new builder instance
+     */
+    public static OptionsBuilder builder() {
+        return new OptionsBuilder();
+    }
+}
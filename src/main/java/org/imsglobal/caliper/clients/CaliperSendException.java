@@ -0,0 +1,78 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+/**
+ * Thrown, or used to complete a future exceptionally, when a Sensor Client fails to deliver an
+ * Envelope.  Carries the HTTP status of the final attempt so that callers can tell a failure worth
+ * retrying later, such as an I/O error, a 429 or a 5xx, from one the endpoint will never accept.
+ */
+public class CaliperSendException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final boolean retryable;
+
+    /**
+     * Constructor for a request rejected by the endpoint.
+     * @param statusCode
+     */
+    public CaliperSendException(int statusCode) {
+        super("HTTP POST failed; status code=" + statusCode);
+        this.statusCode = statusCode;
+        this.retryable = RetryBackoff.isRetryable(statusCode);
+    }
+
+    /**
+     * Constructor for a request that failed without a response.
+     * @param message
+     * @param cause
+     */
+    public CaliperSendException(String message, Throwable cause) {
+        this(message, cause, true);
+    }
+
+    /**
+     * Constructor for an envelope that was not sent, stating whether sending it again may succeed.
+     * @param message
+     * @param cause
+     * @param retryable
+     */
+    public CaliperSendException(String message, Throwable cause, boolean retryable) {
+        super(message, cause);
+        this.statusCode = -1;
+        this.retryable = retryable;
+    }
+
+    /**
+     * Get the HTTP status code of the final attempt.
+     * @return status code or -1 if no response was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Determine whether the same request may succeed if sent again later.
+     * @return true for I/O errors, 429 and 5xx responses unless constructed otherwise
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
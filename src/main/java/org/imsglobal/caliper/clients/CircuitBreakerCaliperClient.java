@@ -0,0 +1,296 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.imsglobal.caliper.validators.SensorValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Decorates a Sensor Client with a circuit breaker.  Once the wrapped client has failed the
+ * configured number of consecutive sends the circuit opens, and for the configured open duration
+ * envelopes are either diverted to a fallback client or rejected immediately with a
+ * CircuitOpenException instead of waiting on an unhealthy endpoint.  When the open duration has
+ * elapsed a single trial send is let through: success closes the circuit, failure reopens it.
+ *
+ * <p>A send has failed if the wrapped client throws or, for an AsyncClient, if the future returned
+ * by sendAsync completes exceptionally.  Only retryable failures count toward opening the circuit:
+ * an envelope the endpoint rejects, for example with a 400, says nothing about its health.  Only the outcome of sends begun since the circuit last
+ * changed state is counted, so a send that was already in flight when the circuit opened cannot
+ * close it again.  Circuit openings and short-circuited envelopes are counted in the CircuitOpened
+ * and ShortCircuited statistics.</p>
+ */
+public class CircuitBreakerCaliperClient implements AsyncClient, DelegatingClient {
+    private final CaliperClient delegate;
+    private final CaliperClient fallback;
+    private final CircuitBreakerClientOptions options;
+    private final Object lock = new Object();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private long generation;
+
+    private static final String REJECTED = "Circuit breaker is open; envelope rejected.";
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerCaliperClient.class);
+
+    /**
+     * Circuit states.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN;
+    }
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory methods.
+     * @param delegate
+     * @param fallback
+     * @param options
+     */
+    private CircuitBreakerCaliperClient(CaliperClient delegate, CaliperClient fallback, CircuitBreakerClientOptions options) {
+        SensorValidator.chkOptions(options);
+
+        this.delegate = delegate;
+        this.fallback = fallback;
+        this.options = options;
+    }
+
+    /**
+     * Get identifier.  The decorator shares the identifier of the wrapped client.
+     * @return id
+     */
+    @Nonnull
+    public String getId() {
+        return delegate.getId();
+    }
+
+    /**
+     * Retrieve options
+     * @return options
+     */
+    public CircuitBreakerClientOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Get statistics.  The decorator shares the statistics of the wrapped client.
+     * @return statistics
+     */
+    @Nonnull
+    public Statistics getStatistics() {
+        return delegate.getStatistics();
+    }
+
+    /**
+     * Retrieve the wrapped client.
+     * @return delegate
+     */
+    @Override
+    public CaliperClient getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Retrieve the fallback client.
+     * @return fallback or null if envelopes are rejected while the circuit is open
+     */
+    public CaliperClient getFallback() {
+        return fallback;
+    }
+
+    /**
+     * Get the circuit state.
+     * @return state
+     */
+    public State getState() {
+        synchronized (lock) {
+            return state;
+        }
+    }
+
+    /**
+     * Send the Envelope through the wrapped client if the circuit allows it; otherwise divert it to
+     * the fallback client or reject it.
+     * @param envelope
+     */
+    @Override
+    public void send(Envelope envelope) {
+        long permit = acquire();
+        if (permit < 0) {
+            getStatistics().updateShortCircuited(1);
+            if (fallback == null) {
+                throw new CircuitOpenException(REJECTED);
+            }
+            fallback.send(envelope);
+            return;
+        }
+
+        if (delegate instanceof AsyncClient) {
+            ((AsyncClient) delegate).sendAsync(envelope).whenComplete(recorder(permit));
+            return;
+        }
+
+        try {
+            delegate.send(envelope);
+        } catch (RuntimeException | Error e) {
+            record(permit, e);
+            throw e;
+        }
+        record(permit, null);
+    }
+
+    /**
+     * Send the Envelope through the wrapped client if the circuit allows it; otherwise divert it to
+     * the fallback client or reject it.  The returned future completes once the outcome has been
+     * recorded.
+     * @param envelope
+     * @return future
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(Envelope envelope) {
+        long permit = acquire();
+        if (permit < 0) {
+            getStatistics().updateShortCircuited(1);
+            if (fallback == null) {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                future.completeExceptionally(new CircuitOpenException(REJECTED));
+                return future;
+            }
+            return Delivery.sendAsync(fallback, envelope);
+        }
+
+        CompletableFuture<Void> future;
+        try {
+            future = Delivery.sendAsync(delegate, envelope);
+        } catch (Error e) {
+            record(permit, e);
+            throw e;
+        }
+        return future.whenComplete(recorder(permit));
+    }
+
+    /**
+     * Determine whether a send may pass through to the wrapped client.
+     * @return the circuit generation in which the send was permitted, or -1 if it may not proceed
+     */
+    private long acquire() {
+        synchronized (lock) {
+            switch (state) {
+                case OPEN:
+                    if (System.currentTimeMillis() - openedAt < options.getOpenDuration()) {
+                        return -1L;
+                    }
+                    transition(State.HALF_OPEN);
+                    return generation;
+                case HALF_OPEN:
+                    return -1L;
+                case CLOSED:
+                default:
+                    return generation;
+            }
+        }
+    }
+
+    /**
+     * Create a callback that records the outcome of an asynchronous send.
+     * @param permit
+     * @return callback
+     */
+    private BiConsumer<Void, Throwable> recorder(final long permit) {
+        return new BiConsumer<Void, Throwable>() {
+            @Override
+            public void accept(Void result, Throwable failure) {
+                record(permit, failure);
+            }
+        };
+    }
+
+    /**
+     * Record the outcome of a send and update the circuit state.  Only a retryable failure, such as
+     * an I/O error, a 429 or a 5xx, reflects on the health of the endpoint; a send the endpoint
+     * rejected as invalid counts as a success.  Outcomes of sends permitted before the circuit last
+     * changed state are ignored; while HALF_OPEN that leaves only the trial send.
+     * @param permit
+     * @param failure null if the send succeeded
+     */
+    private void record(long permit, Throwable failure) {
+        synchronized (lock) {
+            if (permit != generation) {
+                return;
+            }
+
+            if (failure == null || !Delivery.isRetryable(failure)) {
+                consecutiveFailures = 0;
+                if (state == State.HALF_OPEN) {
+                    transition(State.CLOSED);
+                }
+                return;
+            }
+
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= options.getFailureThreshold()) {
+                transition(State.OPEN);
+                openedAt = System.currentTimeMillis();
+                getStatistics().updateCircuitOpened(1);
+                log.warn("Circuit opened for client " + getId() + " after " + consecutiveFailures + " consecutive failure(s).");
+            }
+        }
+    }
+
+    /**
+     * Change the circuit state, starting a new generation.  Must be called while holding the lock.
+     * @param next
+     */
+    private void transition(State next) {
+        state = next;
+        generation++;
+    }
+
+    /**
+     * Factory method for instantiating a CircuitBreakerCaliperClient that rejects envelopes while
+     * the circuit is open.
+     * @param delegate
+     * @param options
+     * @return CircuitBreakerCaliperClient
+     */
+    public static CircuitBreakerCaliperClient create(CaliperClient delegate, CircuitBreakerClientOptions options) {
+        return new CircuitBreakerCaliperClient(delegate, null, options);
+    }
+
+    /**
+     * Factory method for instantiating a CircuitBreakerCaliperClient that diverts envelopes to a
+     * fallback client while the circuit is open.
+     * @param delegate
+     * @param fallback
+     * @param options
+     * @return CircuitBreakerCaliperClient
+     */
+    public static CircuitBreakerCaliperClient create(CaliperClient delegate, CaliperClient fallback, CircuitBreakerClientOptions options) {
+        return new CircuitBreakerCaliperClient(delegate, fallback, options);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+/**
+ * Circuit breaker client options.  The circuit opens after the given number of consecutive failed
+ * sends and stays open for the given number of milliseconds before a trial send is let through.
+ */
+public class CircuitBreakerClientOptions implements CaliperClientOptions {
+    private final int failureThreshold;
+    private final long openDuration;
+
+    /**
+     * Default settings.
+     */
+    public static final int FAILURE_THRESHOLD = 5;
+    public static final long OPEN_DURATION = 30000L;
+
+    /**
+     * Constructor
+     * @param builder
+     */
+    private CircuitBreakerClientOptions(OptionsBuilder builder) {
+        this.failureThreshold = (builder.failureThreshold > 0) ? builder.failureThreshold : FAILURE_THRESHOLD;
+        this.openDuration = (builder.openDuration > 0) ? builder.openDuration : OPEN_DURATION;
+    }
+
+    /**
+     * Get the number of consecutive failed sends that opens the circuit.
+     * @return failure threshold
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * Get the number of milliseconds the circuit stays open before a trial send is attempted.
+     * @return open duration
+     */
+    public long getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Builder class provides a fluid interface for setting options properties.
+     */
+    public static class OptionsBuilder {
+        private int failureThreshold = 0;
+        private long openDuration = 0L;
+
+        /**
+         * Constructor
+         */
+        public OptionsBuilder() {
+
+        }
+
+        /**
+         * @param failureThreshold
+         * @return builder
+         */
+        public OptionsBuilder failureThreshold(final int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        /**
+         * @param openDuration
+         * @return builder
+         */
+        public OptionsBuilder openDuration(final long openDuration) {
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * Client invokes build method in order to create an immutable object.
+         * @return a new instance of Options.
+         */
+        public CircuitBreakerClientOptions build() {
+            return new CircuitBreakerClientOptions(this);
+        }
+    }
+
+    /**
+     * Static Factory method.
+     * @return new builder instance
+     */
+    public static OptionsBuilder builder() {
+        return new OptionsBuilder();
+    }
+}
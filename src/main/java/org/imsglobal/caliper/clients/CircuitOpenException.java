@@ -0,0 +1,36 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+/**
+ * Thrown, or used to complete a future exceptionally, when a CircuitBreakerCaliperClient rejects an
+ * Envelope because its circuit is open.  Always retryable: the envelope was never offered to the
+ * endpoint.
+ */
+public class CircuitOpenException extends CaliperSendException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor
+     * @param message
+     */
+    public CircuitOpenException(String message) {
+        super(message, null, true);
+    }
+}
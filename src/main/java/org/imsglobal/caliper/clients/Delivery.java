@@ -0,0 +1,118 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.Envelope;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reports the outcome of an individual send for decorators that must act on it.  The Statistics of
+ * a client are shared with its decorators and, for an asynchronous client, updated after send has
+ * returned, so they cannot tell a decorator whether its own send succeeded.
+ */
+final class Delivery {
+
+    /**
+     * Constructor.  Not instantiable.
+     */
+    private Delivery() {
+
+    }
+
+    /**
+     * Send the Envelope and wait for the outcome.  An AsyncClient is waited on through the future
+     * returned by sendAsync.
+     * @param client
+     * @param envelope
+     * @throws RuntimeException if the envelope was not delivered
+     */
+    static void sendAndWait(CaliperClient client, Envelope envelope) {
+        if (!(client instanceof AsyncClient)) {
+            client.send(envelope);
+            return;
+        }
+
+        try {
+            ((AsyncClient) client).sendAsync(envelope).join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Send the Envelope without waiting for the outcome.  A client that is not an AsyncClient
+     * sends on the calling thread and the returned future is already complete.
+     * @param client
+     * @param envelope
+     * @return future
+     */
+    static CompletableFuture<Void> sendAsync(CaliperClient client, Envelope envelope) {
+        if (client instanceof AsyncClient) {
+            return ((AsyncClient) client).sendAsync(envelope);
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            client.send(envelope);
+            future.complete(null);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Unwrap the cause of a failed send.
+     * @param failure
+     * @return runtime exception describing the failure
+     */
+    static RuntimeException unwrap(Throwable failure) {
+        while (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            return (RuntimeException) failure;
+        }
+        return new CaliperSendException("Send failed: " + failure.getMessage(), failure);
+    }
+
+    /**
+     * Determine whether a failed send may succeed if repeated.  A CaliperSendException states
+     * whether it is retryable: I/O errors, throttling, server errors and an open circuit are, an
+     * endpoint rejection or a serialization failure is not.  A RejectedExecutionException from a
+     * full dispatch queue is transient.  Any other failure is not retryable.
+     * @param failure
+     * @return true if the send may be repeated
+     */
+    static boolean isRetryable(Throwable failure) {
+        while (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        if (failure instanceof CaliperSendException) {
+            return ((CaliperSendException) failure).isRetryable();
+        }
+        return failure instanceof RejectedExecutionException;
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Compression;
+import org.imsglobal.caliper.databind.JxnMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Applies the configured content coding to a serialized envelope.  Bodies smaller than the
+ * compression threshold are returned unchanged, since the coding overhead outweighs the saving.
+ * Larger bodies are encoded as they are streamed, so neither the plain nor the encoded form
+ * need be held in memory.
+ */
+final class EnvelopeEncoder {
+
+    /**
+     * Constructor.  Scope is private; the encoder exposes static methods only.
+     */
+    private EnvelopeEncoder() {
+
+    }
+
+    /**
+     * Determine whether a body of the given length should be compressed.
+     * @param options
+     * @param length
+     * @return true if the body should be encoded
+     */
+    static boolean shouldEncode(HttpClientOptions options, int length) {
+        return options.getCompression() != Compression.NONE && length >= options.getCompressionThreshold();
+    }
+
+    /**
+     * Serialize an Envelope if its serialized form is shorter than the given limit.  At most limit
+     * bytes are buffered: serialization of a larger envelope is abandoned, so that it can be
+     * compressed as it is streamed to the connection without being held in memory.
+     * @param envelope
+     * @param mapper
+     * @param limit
+     * @return serialized envelope or null if it is at least limit bytes long
+     * @throws IOException
+     */
+    static byte[] serializeWithin(Envelope envelope, JxnMapper mapper, int limit) throws IOException {
+        if (envelope instanceof SerializedEnvelope) {
+            byte[] body = SerializedEnvelope.bytes(envelope, mapper);
+            return (body.length < limit) ? body : null;
+        }
+        if (limit <= 0) {
+            return null;
+        }
+
+        BoundedBuffer buffer = new BoundedBuffer(limit - 1);
+        try {
+            JsonGenerator generator = mapper.getObjectMapper().getFactory().createGenerator(buffer, JsonEncoding.UTF8);
+            try {
+                mapper.getWriter().writeValue(generator, envelope);
+            } finally {
+                generator.close();
+            }
+        } catch (IOException e) {
+            if (BoundedBuffer.isOverflow(e)) {
+                return null;
+            }
+            throw e;
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Wrap a stream so that what is written to it is encoded with the given content coding.
+     * Closing the returned stream finishes the encoding but leaves the wrapped stream open.
+     * @param out
+     * @param compression
+     * @return encoding stream, or out itself if no coding applies
+     * @throws IOException
+     */
+    static OutputStream wrap(OutputStream out, Compression compression) throws IOException {
+        switch (compression) {
+            case GZIP:
+                return new GZIPOutputStream(new Unclosable(out));
+            case DEFLATE:
+                return new DeflaterOutputStream(new Unclosable(out));
+            case NONE:
+            default:
+                return out;
+        }
+    }
+
+    /**
+     * Encode the body using the given content coding.
+     * @param body
+     * @param compression
+     * @return encoded bytes
+     * @throws IOException
+     */
+    static byte[] encode(byte[] body, Compression compression) throws IOException {
+        if (compression == Compression.NONE) {
+            return body;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        OutputStream out = wrap(buffer, compression);
+        try {
+            out.write(body);
+        } finally {
+            out.close();
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Output stream that fails once more than a fixed number of bytes have been written.
+     */
+    private static final class BoundedBuffer extends OutputStream {
+        private static final IOException OVERFLOW = new IOException("Serialized envelope exceeds look-ahead limit") {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public synchronized Throwable fillInStackTrace() {
+                return this;
+            }
+        };
+
+        private final byte[] buffer;
+        private int count;
+
+        private BoundedBuffer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                throw OVERFLOW;
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > buffer.length - count) {
+                throw OVERFLOW;
+            }
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, count);
+        }
+
+        private static boolean isOverflow(Throwable failure) {
+            for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+                if (cause == OVERFLOW) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Passes writes through to the wrapped stream but does not close it.
+     */
+    private static final class Unclosable extends FilterOutputStream {
+        private Unclosable(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Compression;
+import org.imsglobal.caliper.databind.JxnMapper;
+import org.imsglobal.caliper.statistics.LatencyHistogram;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Streaming HTTP request entity that serializes an Envelope with a JsonGenerator directly to the
+ * connection output stream.  The serialized form is never materialized in memory, so the entity
+ * is sent using chunked transfer encoding.  If a content coding is given, the serialized form is
+ * compressed as it is written.  The entity is repeatable: each call to writeTo serializes the
+ * envelope afresh.
+ */
+public class EnvelopeEntity extends AbstractHttpEntity {
+    private final Envelope envelope;
+    private final JxnMapper mapper;
+    private final LatencyHistogram latency;
+    private final Compression compression;
+
+    /**
+     * Constructor
+     * @param envelope
+     * @param mapper
+     * @param contentType
+     */
+    public EnvelopeEntity(Envelope envelope, JxnMapper mapper, ContentType contentType) {
+        this(envelope, mapper, contentType, null);
+    }
+
+    /**
+     * Constructor
+     * @param envelope
+     * @param mapper
+     * @param contentType
+     * @param latency histogram that records the time taken by each writeTo; may be null
+     */
+    public EnvelopeEntity(Envelope envelope, JxnMapper mapper, ContentType contentType, LatencyHistogram latency) {
+        this(envelope, mapper, contentType, latency, Compression.NONE);
+    }
+
+    /**
+     * Constructor
+     * @param envelope
+     * @param mapper
+     * @param contentType
+     * @param latency histogram that records the time taken by each writeTo; may be null
+     * @param compression content coding applied as the envelope is written
+     */
+    public EnvelopeEntity(Envelope envelope, JxnMapper mapper, ContentType contentType, LatencyHistogram latency,
+                          Compression compression) {
+        this.envelope = envelope;
+        this.mapper = mapper;
+        this.latency = latency;
+        this.compression = compression;
+        setContentType(contentType.toString());
+        if (compression != Compression.NONE) {
+            setContentEncoding(compression.value());
+        }
+        setChunked(true);
+    }
+
+    /**
+     * Get the Envelope.
+     * @return envelope
+     */
+    public Envelope getEnvelope() {
+        return envelope;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    /**
+     * The length is unknown until the envelope has been written.
+     * @return -1
+     */
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * Buffered fallback for consumers that pull rather than push content.
+     * @return input stream over the serialized, encoded envelope
+     * @throws IOException
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        return new ByteArrayInputStream(EnvelopeEncoder.encode(SerializedEnvelope.bytes(envelope, mapper), compression));
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        OutputStream encoded = EnvelopeEncoder.wrap(out, compression);
+        try {
+            if (envelope instanceof SerializedEnvelope) {
+                encoded.write(SerializedEnvelope.bytes(envelope, mapper));
+            } else {
+                JsonGenerator generator = mapper.getObjectMapper().getFactory().createGenerator(encoded, JsonEncoding.UTF8);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                try {
+                    mapper.getWriter().writeValue(generator, envelope);
+                } finally {
+                    generator.close();
+                }
+            }
+        } finally {
+            if (encoded != out) {
+                encoded.close();
+            }
+            if (latency != null) {
+                latency.recordSince(start);
+            }
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -18,26 +18,39 @@
 
 package org.imsglobal.caliper.clients;
 
-import org.apache.http.client.ClientProtocolException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Compression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Provisions the Sensor with an HttpClient that binds to one or more Requestors.
+ * Provisions the Sensor with an HttpClient that binds to one or more Requestors.  Each instance
+ * owns a pooled connection manager configured from its HttpClientOptions; call close() to release
+ * pooled connections once the client is no longer required.  Instances are safe for concurrent
+ * use by multiple sending threads.
  */
-public class HttpClient extends AbstractClient {
-    private static CloseableHttpClient httpClient;
-    private static CloseableHttpResponse response = null;
+public class HttpClient extends AbstractClient implements Closeable {
+    private final CloseableHttpClient httpClient;
+    private final ContentType contentType;
 
     private static final Logger log = LoggerFactory.getLogger(HttpClient.class);
 
@@ -48,84 +61,227 @@ public class HttpClient extends AbstractClient {
      */
     private HttpClient(String id, HttpClientOptions options) {
         super(id, options);
-        initialize();
+        this.httpClient = createHttpClient(options);
+        this.contentType = contentType(options);
     }
 
     /**
-     * Init method
+     * Init method.  Each HttpClient now creates its own connection pool when it is constructed, so
+     * there is nothing left to initialize.
+     * @deprecated no longer required; retained for source compatibility and does nothing
      */
-    public static synchronized void initialize() {
-        if (httpClient == null) {
-            httpClient = HttpClients.createDefault();
-        }
+    @Deprecated
+    public static void initialize() {
+
     }
 
     /**
-     * Check initialized instance.
+     * Build a pooled Apache HttpClient that applies the timeout, pool and keep-alive options.
+     * @param options
+     * @return CloseableHttpClient
      */
-    private static void checkInitialized() {
-        if (httpClient == null) {
-            throw new IllegalStateException("HttpClient is not initialized.");
-        }
+    private static CloseableHttpClient createHttpClient(HttpClientOptions options) {
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager();
+        manager.setMaxTotal(options.getMaxTotal());
+        manager.setDefaultMaxPerRoute(options.getMaxPerRoute());
+        manager.setValidateAfterInactivity(options.getValidateAfterInactivity());
+
+        return HttpClients.custom()
+            .setConnectionManager(manager)
+            .setDefaultRequestConfig(requestConfig(options))
+            .setKeepAliveStrategy(keepAliveStrategy(options))
+            .evictExpiredConnections()
+            .evictIdleConnections(options.getIdleEviction(), TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    /**
+     * Resolve the entity content type from the configured Content-Type, which defaults to the
+     * content type of the configured data format.
+     * @param options
+     * @return ContentType
+     */
+    static ContentType contentType(HttpClientOptions options) {
+        return ContentType.parse(options.getContentType());
+    }
+
+    /**
+     * Translate the timeout options into a default request configuration.
+     * @param options
+     * @return RequestConfig
+     */
+    static RequestConfig requestConfig(HttpClientOptions options) {
+        return RequestConfig.custom()
+            .setConnectTimeout(options.getConnTimeout())
+            .setConnectionRequestTimeout(options.getConnectionRequestTimeout())
+            .setSocketTimeout(options.getSocketTimeout())
+            .build();
     }
 
     /**
-     * Post envelope.
+     * Honor a server-supplied Keep-Alive timeout; otherwise fall back to the configured value.
+     * @param options
+     * @return ConnectionKeepAliveStrategy
+     */
+    static ConnectionKeepAliveStrategy keepAliveStrategy(final HttpClientOptions options) {
+        return new ConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return (duration > 0) ? duration : options.getKeepAlive();
+            }
+        };
+    }
+
+    /**
+     * Post envelope.  A POST that fails with an I/O error, a 5xx or a 429 is retried up to the
+     * configured number of times, waiting an exponentially increasing, jittered delay between attempts.
      * @param envelope
-     * @return status
+     * @throws CaliperSendException if the envelope could not be delivered
      */
     @Override
     public void send(Envelope envelope) {
-        boolean status = Boolean.FALSE;
+        long start = System.nanoTime();
 
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Entering send()...");
             }
 
-            // Check if HttpClient is initialized.
-            checkInitialized();
-
-            // Serialize the envelope
-            String json = this.serializeEnvelope(envelope);
-
             // Prep the post
             HttpPost post = new HttpPost(super.getOptions().getHost());
             post.setHeader("Authorization", this.getOptions().getApiKey());
             post.setHeader("Content-Type", this.getOptions().getContentType());
-            post.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+            post.setEntity(createEntity(envelope));
+
+            for (int attempt = 0; ; attempt++) {
+                int statusCode = -1;
+                long retryAfter = -1L;
+                IOException failure = null;
+
+                // Execute POST; the response is confined to this call so concurrent senders never share it
+                long attemptStart = System.nanoTime();
+                try (CloseableHttpResponse response = httpClient.execute(post)) {
+                    getStatistics().getRoundTripLatency().recordSince(attemptStart);
 
-            // Execute POST
-            response = httpClient.execute(post);
+                    // HTTP Response code
+                    statusCode = response.getStatusLine().getStatusCode();
+                    if (statusCode >= 200 && statusCode <= 202) {
+                        if (log.isDebugEnabled()) {
+                            log.debug(response.getStatusLine().toString());
+                            log.debug(EntityUtils.toString(response.getEntity()));
+                        }
 
-            // HTTP Response code
-            int statusCode = response.getStatusLine().getStatusCode();
-            if (statusCode < 200 || statusCode > 202) {
-                response.close();
+                        // Consume the response so the connection is returned to the pool for reuse
+                        EntityUtils.consume(response.getEntity());
 
-                // Update statistics
-                updateStatistics(Boolean.FALSE);
+                        // Update statistics
+                        updateStatistics(Boolean.TRUE);
 
-                throw new RuntimeException("WARN: HTTP POST failed; status code=" + statusCode);
-            } else {
-                if (log.isDebugEnabled()) {
-                    log.debug(response.getStatusLine().toString());
-                    log.debug(EntityUtils.toString(response.getEntity()));
+                        if (log.isDebugEnabled()) {
+                            log.debug("Exiting send()...");
+                        }
+                        return;
+                    }
+
+                    retryAfter = RetryBackoff.retryAfter(response);
+                    EntityUtils.consume(response.getEntity());
+                } catch (IOException ioe) {
+                    getStatistics().getRoundTripLatency().recordSince(attemptStart);
+                    if (isSerializationFailure(ioe)) {
+                        // A streamed envelope that cannot be serialized fails the same way every time
+                        throw ioe;
+                    }
+                    failure = ioe;
                 }
-                response.close();
 
-                // Update statistics
-                updateStatistics(Boolean.TRUE);
+                if (!RetryBackoff.shouldRetry(this.getOptions(), attempt, (failure != null) ? -1 : statusCode)) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+
+                    // Update statistics
+                    updateStatistics(Boolean.FALSE);
 
-                if (log.isDebugEnabled()) {
-                    log.debug("Exiting send()...");
+                    log.warn("HTTP POST failed; status code=" + statusCode);
+                    throw new CaliperSendException(statusCode);
                 }
+
+                getStatistics().updateRetried(1);
+                Thread.sleep(RetryBackoff.delay(this.getOptions(), attempt, retryAfter));
             }
-        } catch (ClientProtocolException cpe) {
-            cpe.printStackTrace();
         } catch (IOException ioe) {
-            ioe.printStackTrace();
+            updateStatistics(Boolean.FALSE);
+            if (isSerializationFailure(ioe)) {
+                log.warn("Unable to serialize envelope: " + ioe.getMessage(), ioe);
+                throw new CaliperSendException("Unable to serialize envelope: " + ioe.getMessage(), ioe, false);
+            }
+            log.warn("HTTP POST failed: " + ioe.getMessage(), ioe);
+            throw new CaliperSendException("HTTP POST failed: " + ioe.getMessage(), ioe);
+        } catch (InterruptedException ie) {
+            updateStatistics(Boolean.FALSE);
+            Thread.currentThread().interrupt();
+            throw new CaliperSendException("Interrupted while waiting to retry HTTP POST", ie);
+        } finally {
+            getStatistics().getEndToEndLatency().recordSince(start);
+        }
+    }
+
+    /**
+     * Determine whether an I/O failure was raised by the serializer rather than the connection.
+     * Streamed envelopes are serialized while the request is executed, so the serializer's
+     * exception may arrive wrapped.
+     * @param ioe
+     * @return true if the envelope could not be serialized
+     */
+    static boolean isSerializationFailure(IOException ioe) {
+        for (Throwable cause = ioe; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonProcessingException) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    /**
+     * Create the request entity.  Uncompressed envelopes are serialized as they are written to the
+     * connection.  When compression is enabled, or when the envelope is shared with other Clients,
+     * the serialized form is obtained up front so that its size can be checked against the
+     * compression threshold and the bytes reused.
+     * @param envelope
+     * @return HttpEntity
+     * @throws IOException
+     */
+    private HttpEntity createEntity(Envelope envelope) throws IOException {
+        Compression compression = this.getOptions().getCompression();
+        if (compression == Compression.NONE) {
+            if (envelope instanceof SerializedEnvelope) {
+                return new ByteArrayEntity(writeEnvelope(envelope), contentType);
+            }
+            return new EnvelopeEntity(envelope, getMapper(), contentType,
+                getStatistics().getSerializeLatency());
+        }
+
+        // Bodies under the threshold are sent as is; serialization of larger ones is abandoned
+        // after threshold bytes and restarted as a compressed stream by the entity
+        long start = System.nanoTime();
+        byte[] body = EnvelopeEncoder.serializeWithin(envelope, getMapper(), this.getOptions().getCompressionThreshold());
+        if (body != null) {
+            getStatistics().getSerializeLatency().recordSince(start);
+            return new ByteArrayEntity(body, contentType);
+        }
+
+        return new EnvelopeEntity(envelope, getMapper(), contentType,
+            getStatistics().getSerializeLatency(), compression);
+    }
+
+    /**
+     * Shut down the connection pool.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
     }
 
     /**
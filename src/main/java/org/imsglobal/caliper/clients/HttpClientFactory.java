@@ -0,0 +1,49 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+/**
+ * Creates the HTTP client selected by the transport setting in HttpClientOptions, allowing the
+ * blocking and non-blocking transports to be switched through configuration alone.
+ */
+public class HttpClientFactory {
+
+    /**
+     * Constructor.  Scope is private; the factory exposes static methods only.
+     */
+    private HttpClientFactory() {
+
+    }
+
+    /**
+     * Create an HTTP client for the configured transport.
+     * @param id
+     * @param options
+     * @return client
+     */
+    public static AbstractClient create(String id, HttpClientOptions options) {
+        switch (options.getTransport()) {
+            case NON_BLOCKING:
+                return AsyncHttpClient.create(id, options);
+            case BLOCKING:
+            default:
+                return HttpClient.create(id, options);
+        }
+    }
+}
@@ -18,7 +18,11 @@
 
 package org.imsglobal.caliper.clients;
 
+import org.imsglobal.caliper.config.Compression;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.config.DataFormat;
 import org.imsglobal.caliper.config.Timeout;
+import org.imsglobal.caliper.config.Transport;
 import org.imsglobal.caliper.validators.SensorValidator;
 
 /**
@@ -27,20 +31,73 @@ import org.imsglobal.caliper.validators.SensorValidator;
 public class HttpClientOptions implements CaliperClientOptions {
     private final String apiKey;
     private final int connectionTimeout;
+    private final int connectionRequestTimeout;
+    private final DataFormat dataFormat;
     private final String contentType;
     private final String host;
     private final int socketTimeout;
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final long keepAlive;
+    private final long idleEviction;
+    private final int validateAfterInactivity;
+    private final Transport transport;
+    private final Compression compression;
+    private final int compressionThreshold;
+    private final int maxRetries;
+    private final long retryBaseDelay;
+    private final long retryMaxDelay;
+    private final boolean deduplicateEntities;
 
     /**
      * Default timeout settings.
      */
     public static final int CONNECTION_TIMEOUT = Timeout.CONNECTION_TIMEOUT.value();
+    public static final int CONNECTION_REQUEST_TIMEOUT = Timeout.CONNECTION_REQUESTOR_TIMEOUT.value();
     public static final int SOCKET_TIMEOUT = Timeout.SOCKET_TIMEOUT.value();
 
     /**
-     * HTTP Request Header field values.  Update faux Host value.
+     * Default connection pool settings.  Durations are expressed in milliseconds.
      */
+    public static final int MAX_TOTAL = 20;
+    public static final int MAX_PER_ROUTE = 10;
+    public static final long KEEP_ALIVE = 30000L;
+    public static final long IDLE_EVICTION = 60000L;
+    public static final int VALIDATE_AFTER_INACTIVITY = 2000;
+
+    /**
+     * Default HTTP transport.
+     */
+    public static final Transport TRANSPORT = Transport.BLOCKING;
+
+    /**
+     * Default request body compression.  Bodies smaller than the threshold (in bytes) are sent uncompressed.
+     */
+    public static final Compression COMPRESSION = Compression.NONE;
+    public static final int COMPRESSION_THRESHOLD = 1024;
+
+    /**
+     * Default retry settings.  Durations are expressed in milliseconds; by default a failed POST is not retried.
+     */
+    public static final int MAX_RETRIES = 0;
+    public static final long RETRY_BASE_DELAY = 100L;
+    public static final long RETRY_MAX_DELAY = 10000L;
+
+    /**
+     * Default entity handling.  By default every occurrence of an entity is serialized in full.
+     */
+    public static final boolean DEDUPLICATE_ENTITIES = false;
+
+    /**
+     * HTTP Request Header Content-Type value.
+     * @deprecated the default Content-Type now follows the data format; see DataFormat.contentType()
+     */
+    @Deprecated
     public static final String HTTP_CONTENT_TYPE = "application/json";
+
+    /**
+     * HTTP Request Header Host value.  Update faux Host value.
+     */
     public static final String HTTP_HOST = "https://example.org";
 
     /**
@@ -53,9 +110,23 @@ public class HttpClientOptions implements CaliperClientOptions {
 
         this.apiKey = builder.apiKey;
         this.connectionTimeout = SensorValidator.chkIntValue(builder.connectionTimeout, CONNECTION_TIMEOUT);
-        this.contentType = SensorValidator.chkStrValue(builder.contentType, HTTP_CONTENT_TYPE);
+        this.connectionRequestTimeout = SensorValidator.chkIntValue(builder.connectionRequestTimeout, CONNECTION_REQUEST_TIMEOUT);
+        this.dataFormat = (builder.dataFormat != null) ? builder.dataFormat : Config.DATA_FORMAT;
+        this.contentType = SensorValidator.chkStrValue(builder.contentType, dataFormat.contentType());
         this.host = SensorValidator.chkStrValue(builder.host, HTTP_HOST);
         this.socketTimeout = SensorValidator.chkIntValue(builder.socketTimeout, SOCKET_TIMEOUT);
+        this.maxTotal = (builder.maxTotal > 0) ? builder.maxTotal : MAX_TOTAL;
+        this.maxPerRoute = (builder.maxPerRoute > 0) ? builder.maxPerRoute : MAX_PER_ROUTE;
+        this.keepAlive = (builder.keepAlive > 0) ? builder.keepAlive : KEEP_ALIVE;
+        this.idleEviction = (builder.idleEviction > 0) ? builder.idleEviction : IDLE_EVICTION;
+        this.validateAfterInactivity = (builder.validateAfterInactivity > 0) ? builder.validateAfterInactivity : VALIDATE_AFTER_INACTIVITY;
+        this.transport = (builder.transport != null) ? builder.transport : TRANSPORT;
+        this.compression = (builder.compression != null) ? builder.compression : COMPRESSION;
+        this.compressionThreshold = (builder.compressionThreshold >= 0) ? builder.compressionThreshold : COMPRESSION_THRESHOLD;
+        this.maxRetries = (builder.maxRetries > 0) ? builder.maxRetries : MAX_RETRIES;
+        this.retryBaseDelay = (builder.retryBaseDelay > 0) ? builder.retryBaseDelay : RETRY_BASE_DELAY;
+        this.retryMaxDelay = (builder.retryMaxDelay > 0) ? builder.retryMaxDelay : RETRY_MAX_DELAY;
+        this.deduplicateEntities = builder.deduplicateEntities;
     }
 
     /**
@@ -75,7 +146,23 @@ public class HttpClientOptions implements CaliperClientOptions {
     }
 
     /**
-     * Get the HTTP Content-Type value.
+     * Get the timeout for leasing a connection from the connection pool.
+     * @return connection request timeout
+     */
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    /**
+     * Get the format in which envelopes are serialized.
+     * @return data format
+     */
+    public DataFormat getDataFormat() {
+        return dataFormat;
+    }
+
+    /**
+     * Get the HTTP Content-Type value.  Defaults to the content type of the data format.
      * @return HTTP Content-Type value
      */
     public String getContentType() {
@@ -98,15 +185,126 @@ public class HttpClientOptions implements CaliperClientOptions {
         return socketTimeout;
     }
 
+    /**
+     * Get the maximum number of pooled connections.
+     * @return max total connections
+     */
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Get the maximum number of pooled connections per route.
+     * @return max connections per route
+     */
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * Get the period a connection may be kept alive when the server does not specify one.
+     * @return keep-alive in milliseconds
+     */
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Get the period after which idle pooled connections are evicted.
+     * @return idle eviction time in milliseconds
+     */
+    public long getIdleEviction() {
+        return idleEviction;
+    }
+
+    /**
+     * Get the period of inactivity after which a pooled connection is revalidated before reuse.
+     * Applies to HttpClient only; AsyncHttpClient ignores it.
+     * @return validate-after-inactivity in milliseconds
+     */
+    public int getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    /**
+     * Get the HTTP transport used by clients created with HttpClientFactory.
+     * @return transport
+     */
+    public Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Get the content coding applied to outgoing envelopes.
+     * @return compression
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Get the minimum serialized envelope size at which compression is applied.
+     * @return compression threshold in bytes
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Get the number of times a POST that failed with an I/O error, a 5xx or a 429 is retried.
+     * @return max retries
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Get the delay before the first retry; the delay doubles with each subsequent retry.
+     * @return retry base delay in milliseconds
+     */
+    public long getRetryBaseDelay() {
+        return retryBaseDelay;
+    }
+
+    /**
+     * Get the upper bound on the delay between retries, including delays requested with Retry-After.
+     * @return retry max delay in milliseconds
+     */
+    public long getRetryMaxDelay() {
+        return retryMaxDelay;
+    }
+
+    /**
+     * Determine whether repeat occurrences of an entity within an envelope are coerced to its id.
+     * @return true if entities are deduplicated
+     */
+    public boolean isDeduplicateEntities() {
+        return deduplicateEntities;
+    }
+
     /**
      * Builder class provides a fluid interface for setting options properties.
      */
     public static class OptionsBuilder {
         private String apiKey;
         private int connectionTimeout = 0;
+        private int connectionRequestTimeout = 0;
+        private DataFormat dataFormat;
         private String contentType;
         private String host;
         private int socketTimeout = 0;
+        private int maxTotal = 0;
+        private int maxPerRoute = 0;
+        private long keepAlive = 0L;
+        private long idleEviction = 0L;
+        private int validateAfterInactivity = 0;
+        private Transport transport;
+        private Compression compression;
+        private int compressionThreshold = -1;
+        private int maxRetries = 0;
+        private long retryBaseDelay = 0L;
+        private long retryMaxDelay = 0L;
+        private boolean deduplicateEntities = DEDUPLICATE_ENTITIES;
 
         /**
          * Constructor
@@ -133,6 +331,24 @@ public class HttpClientOptions implements CaliperClientOptions {
             return this;
         }
 
+        /**
+         * @param connectionRequestTimeout
+         * @return builder
+         */
+        public OptionsBuilder connectionRequestTimeout(final int connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+            return this;
+        }
+
+        /**
+         * @param dataFormat
+         * @return builder
+         */
+        public OptionsBuilder dataFormat(final DataFormat dataFormat) {
+            this.dataFormat = dataFormat;
+            return this;
+        }
+
         /**
          * @param contentType
          * @return builder
@@ -160,6 +376,114 @@ public class HttpClientOptions implements CaliperClientOptions {
             return this;
         }
 
+        /**
+         * @param maxTotal
+         * @return builder
+         */
+        public OptionsBuilder maxTotal(final int maxTotal) {
+            this.maxTotal = maxTotal;
+            return this;
+        }
+
+        /**
+         * @param maxPerRoute
+         * @return builder
+         */
+        public OptionsBuilder maxPerRoute(final int maxPerRoute) {
+            this.maxPerRoute = maxPerRoute;
+            return this;
+        }
+
+        /**
+         * @param keepAlive
+         * @return builder
+         */
+        public OptionsBuilder keepAlive(final long keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * @param idleEviction
+         * @return builder
+         */
+        public OptionsBuilder idleEviction(final long idleEviction) {
+            this.idleEviction = idleEviction;
+            return this;
+        }
+
+        /**
+         * @param validateAfterInactivity
+         * @return builder
+         */
+        public OptionsBuilder validateAfterInactivity(final int validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+            return this;
+        }
+
+        /**
+         * @param transport
+         * @return builder
+         */
+        public OptionsBuilder transport(final Transport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * @param compression
+         * @return builder
+         */
+        public OptionsBuilder compression(final Compression compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        /**
+         * @param compressionThreshold
+         * @return builder
+         */
+        public OptionsBuilder compressionThreshold(final int compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+            return this;
+        }
+
+        /**
+         * @param maxRetries
+         * @return builder
+         */
+        public OptionsBuilder maxRetries(final int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * @param retryBaseDelay
+         * @return builder
+         */
+        public OptionsBuilder retryBaseDelay(final long retryBaseDelay) {
+            this.retryBaseDelay = retryBaseDelay;
+            return this;
+        }
+
+        /**
+         * @param retryMaxDelay
+         * @return builder
+         */
+        public OptionsBuilder retryMaxDelay(final long retryMaxDelay) {
+            this.retryMaxDelay = retryMaxDelay;
+            return this;
+        }
+
+        /**
+         * @param deduplicateEntities
+         * @return builder
+         */
+        public OptionsBuilder deduplicateEntities(final boolean deduplicateEntities) {
+            this.deduplicateEntities = deduplicateEntities;
+            return this;
+        }
+
         /**
          * Client invokes build method in order to create an immutable object.
          * @return a new instance of Options.
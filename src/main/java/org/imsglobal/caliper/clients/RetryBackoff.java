@@ -0,0 +1,100 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.utils.DateUtils;
+
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry decisions shared by the HTTP clients.  Delays grow exponentially from the configured base
+ * delay and are jittered so that clients recovering from the same outage do not retry in lockstep.
+ * A Retry-After header sent by the endpoint raises the delay, subject to the configured maximum.
+ */
+final class RetryBackoff {
+
+    /**
+     * Constructor.  Scope is private; the class exposes static methods only.
+     */
+    private RetryBackoff() {
+
+    }
+
+    /**
+     * Determine whether a failed attempt may be retried.
+     * @param options
+     * @param attempt zero-based number of the attempt that failed
+     * @param statusCode HTTP status code or -1 if the attempt failed with an I/O error
+     * @return true if the request should be retried
+     */
+    static boolean shouldRetry(HttpClientOptions options, int attempt, int statusCode) {
+        return attempt < options.getMaxRetries() && isRetryable(statusCode);
+    }
+
+    /**
+     * Determine whether a failure is transient.  I/O errors, 429 and 5xx responses may succeed later;
+     * any other status means the endpoint will not accept the request as sent.
+     * @param statusCode HTTP status code or -1 if the attempt failed with an I/O error
+     * @return true if the failure is transient
+     */
+    static boolean isRetryable(int statusCode) {
+        return statusCode < 0 || statusCode == 429 || (statusCode >= 500 && statusCode <= 599);
+    }
+
+    /**
+     * Compute the delay before the next attempt.  Half of the exponential delay is fixed and half
+     * is random.
+     * @param options
+     * @param attempt zero-based number of the attempt that failed
+     * @param retryAfter delay requested by the endpoint in milliseconds or -1 if none
+     * @return delay in milliseconds
+     */
+    static long delay(HttpClientOptions options, int attempt, long retryAfter) {
+        long ceiling = options.getRetryBaseDelay() << Math.min(attempt, 30);
+        if (ceiling <= 0 || ceiling > options.getRetryMaxDelay()) {
+            ceiling = options.getRetryMaxDelay();
+        }
+
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        return Math.min(Math.max(delay, retryAfter), options.getRetryMaxDelay());
+    }
+
+    /**
+     * Parse the Retry-After header, which holds either a number of seconds or an HTTP-date.
+     * @param response
+     * @return delay in milliseconds or -1 if the header is absent or malformed
+     */
+    static long retryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header == null) {
+            return -1L;
+        }
+
+        String value = header.getValue().trim();
+        try {
+            return Math.max(0L, Long.parseLong(value) * 1000L);
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return (date != null) ? Math.max(0L, date.getTime() - System.currentTimeMillis()) : -1L;
+        }
+    }
+}
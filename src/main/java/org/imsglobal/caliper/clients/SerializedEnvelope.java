@@ -0,0 +1,108 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.databind.JxnMapper;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * An Envelope that carries its own serialized form.  The Sensor wraps an Envelope in a
+ * SerializedEnvelope for the duration of a single send to several Clients, so that the Envelope is
+ * serialized at most once per mapper and every Client transmits the same bytes.  Clients that
+ * share a data format and filters share a mapper.  The caller's Envelope is never modified and
+ * the bytes are released with the wrapper.
+ */
+public class SerializedEnvelope extends Envelope {
+    private final ConcurrentMap<JxnMapper, byte[]> serialized = new ConcurrentHashMap<>(2);
+
+    /**
+     * Constructor
+     * @param envelope
+     */
+    private SerializedEnvelope(Envelope envelope) {
+        super(envelope.getSensorId(), envelope.getSendTime(), envelope.getDataVersion(), envelope.getData());
+    }
+
+    /**
+     * Get the serialized form of the envelope produced by the given mapper, serializing it on first
+     * use.  The returned array must not be modified.
+     * @param mapper
+     * @return serialized envelope
+     * @throws JsonProcessingException
+     */
+    public byte[] getBytes(JxnMapper mapper) throws JsonProcessingException {
+        try {
+            return serialized.computeIfAbsent(mapper, new Function<JxnMapper, byte[]>() {
+                @Override
+                public byte[] apply(JxnMapper mapper) {
+                    try {
+                        return mapper.writeValueAsBytes(SerializedEnvelope.this);
+                    } catch (JsonProcessingException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw (JsonProcessingException) e.getCause();
+        }
+    }
+
+    /**
+     * Serialize an Envelope with the given mapper, reusing the shared bytes if it is a
+     * SerializedEnvelope.
+     * @param envelope
+     * @param mapper
+     * @return serialized envelope
+     * @throws JsonProcessingException
+     */
+    static byte[] bytes(Envelope envelope, JxnMapper mapper) throws JsonProcessingException {
+        if (envelope instanceof SerializedEnvelope) {
+            return ((SerializedEnvelope) envelope).getBytes(mapper);
+        }
+        return mapper.writeValueAsBytes(envelope);
+    }
+
+    /**
+     * Wrap an Envelope so that its serialized form can be shared.
+     * @param envelope
+     * @return SerializedEnvelope
+     */
+    public static SerializedEnvelope of(Envelope envelope) {
+        return (envelope instanceof SerializedEnvelope) ? (SerializedEnvelope) envelope : new SerializedEnvelope(envelope);
+    }
+
+    /**
+     * Wrap an Envelope whose serialized form by the given mapper is already known.
+     * @param envelope
+     * @param mapper
+     * @param bytes
+     * @return SerializedEnvelope
+     */
+    static SerializedEnvelope of(Envelope envelope, JxnMapper mapper, byte[] bytes) {
+        SerializedEnvelope serializedEnvelope = of(envelope);
+        serializedEnvelope.serialized.putIfAbsent(mapper, bytes);
+        return serializedEnvelope;
+    }
+}
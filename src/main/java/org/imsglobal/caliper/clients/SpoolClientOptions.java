@@ -0,0 +1,244 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.config.FsyncPolicy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Spooling client options.  Governs the spool directory, the size of each log segment, the cap on
+ * total disk usage, how often appended envelopes are forced to disk and what becomes of envelopes
+ * the endpoint refuses.  Sizes are expressed in bytes and durations in milliseconds.
+ */
+public class SpoolClientOptions implements CaliperClientOptions {
+    private final String directory;
+    private final int segmentSize;
+    private final long maxBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncInterval;
+    private final long retryInterval;
+    private final int maxAttempts;
+    private final String deadLetterDirectory;
+
+    /**
+     * Default settings.
+     */
+    public static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    public static final long MAX_BYTES = 256L * 1024 * 1024;
+    public static final FsyncPolicy FSYNC_POLICY = FsyncPolicy.INTERVAL;
+    public static final long FSYNC_INTERVAL = 1000L;
+    public static final long RETRY_INTERVAL = 1000L;
+    public static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Constructor
+     * @param builder
+     */
+    private SpoolClientOptions(OptionsBuilder builder) {
+        checkArgument(builder.directory != null && !builder.directory.isEmpty(), "Spool directory must be specified.");
+
+        this.directory = builder.directory;
+        this.segmentSize = (builder.segmentSize > 0) ? builder.segmentSize : SEGMENT_SIZE;
+        this.maxBytes = (builder.maxBytes > 0) ? builder.maxBytes : MAX_BYTES;
+        this.fsyncPolicy = (builder.fsyncPolicy != null) ? builder.fsyncPolicy : FSYNC_POLICY;
+        this.fsyncInterval = (builder.fsyncInterval > 0) ? builder.fsyncInterval : FSYNC_INTERVAL;
+        this.retryInterval = (builder.retryInterval > 0) ? builder.retryInterval : RETRY_INTERVAL;
+        this.maxAttempts = (builder.maxAttempts > 0) ? builder.maxAttempts : MAX_ATTEMPTS;
+        this.deadLetterDirectory = builder.deadLetterDirectory;
+
+        checkArgument(maxBytes >= segmentSize, "Spool maxBytes must be at least one segment.");
+    }
+
+    /**
+     * Get the directory that holds the spool segments.
+     * @return directory
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the size of each log segment.  An envelope larger than a segment cannot be spooled.
+     * @return segment size
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Get the maximum disk space occupied by the spool segments.
+     * @return max bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Get the policy governing when spooled envelopes are forced to disk.
+     * @return fsync policy
+     */
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    /**
+     * Get the period between forces when the fsync policy is INTERVAL.
+     * @return fsync interval
+     */
+    public long getFsyncInterval() {
+        return fsyncInterval;
+    }
+
+    /**
+     * Get the period to wait before replaying an envelope the wrapped client failed to send.
+     * @return retry interval
+     */
+    public long getRetryInterval() {
+        return retryInterval;
+    }
+
+    /**
+     * Get the number of attempts made to send an envelope that fails permanently, such as one the
+     * endpoint rejects with a 4xx status, before it is removed from the spool.  Transient failures
+     * are retried until the envelope is delivered.
+     * @return max attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Get the directory to which envelopes removed from the spool after failing permanently are
+     * written.
+     * @return dead letter directory or null if such envelopes are discarded
+     */
+    public String getDeadLetterDirectory() {
+        return deadLetterDirectory;
+    }
+
+    /**
+     * Builder class provides a fluid interface for setting options properties.
+     */
+    public static class OptionsBuilder {
+        private String directory;
+        private int segmentSize = 0;
+        private long maxBytes = 0L;
+        private FsyncPolicy fsyncPolicy;
+        private long fsyncInterval = 0L;
+        private long retryInterval = 0L;
+        private int maxAttempts = 0;
+        private String deadLetterDirectory;
+
+        /**
+         * Constructor
+         */
+        public OptionsBuilder() {
+
+        }
+
+        /**
+         * @param directory
+         * @return builder
+         */
+        public OptionsBuilder directory(final String directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * @param segmentSize
+         * @return builder
+         */
+        public OptionsBuilder segmentSize(final int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * @param maxBytes
+         * @return builder
+         */
+        public OptionsBuilder maxBytes(final long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * @param fsyncPolicy
+         * @return builder
+         */
+        public OptionsBuilder fsyncPolicy(final FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = fsyncPolicy;
+            return this;
+        }
+
+        /**
+         * @param fsyncInterval
+         * @return builder
+         */
+        public OptionsBuilder fsyncInterval(final long fsyncInterval) {
+            this.fsyncInterval = fsyncInterval;
+            return this;
+        }
+
+        /**
+         * @param retryInterval
+         * @return builder
+         */
+        public OptionsBuilder retryInterval(final long retryInterval) {
+            this.retryInterval = retryInterval;
+            return this;
+        }
+
+        /**
+         * @param maxAttempts
+         * @return builder
+         */
+        public OptionsBuilder maxAttempts(final int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * @param deadLetterDirectory
+         * @return builder
+         */
+        public OptionsBuilder deadLetterDirectory(final String deadLetterDirectory) {
+            this.deadLetterDirectory = deadLetterDirectory;
+            return this;
+        }
+
+        /**
+         * Client invokes build method in order to create an immutable object.
+         * @return a new instance of Options.
+         */
+        public SpoolClientOptions build() {
+            return new SpoolClientOptions(this);
+        }
+    }
+
+    /**
+     * Static Factory method.
+     * @return new builder instance
+     */
+    public static OptionsBuilder builder() {
+        return new OptionsBuilder();
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * A fixed-size, memory-mapped spool log file.  Records are laid out back to back, each prefixed
+ * by a header holding the payload length and a CRC-32 of the payload.  The length is written last
+ * so that a torn append is never mistaken for a record, and is negated once the record has been
+ * delivered.  A zero length marks the end of the appended records.  Instances are not thread-safe;
+ * the owning SpoolingCaliperClient serializes access.
+ */
+final class SpoolSegment {
+    static final int HEADER_SIZE = 8;
+    static final String SUFFIX = ".spool";
+
+    private final File file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+    private int readPosition;
+    private int pending;
+
+    /**
+     * Constructor.  Maps the file and scans it for records appended before the last shutdown.
+     * @param file
+     * @param size
+     * @throws IOException
+     */
+    private SpoolSegment(File file, int size) throws IOException {
+        this.file = file;
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            this.channel = raf.getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+
+        recover();
+    }
+
+    /**
+     * Create a new, empty segment.
+     * @param directory
+     * @param sequence
+     * @param size
+     * @return segment
+     * @throws IOException
+     */
+    static SpoolSegment create(File directory, long sequence, int size) throws IOException {
+        return new SpoolSegment(new File(directory, String.format("%020d", sequence) + SUFFIX), size);
+    }
+
+    /**
+     * Open an existing segment.
+     * @param file
+     * @return segment
+     * @throws IOException
+     */
+    static SpoolSegment open(File file) throws IOException {
+        return new SpoolSegment(file, (int) file.length());
+    }
+
+    /**
+     * Parse the sequence number encoded in a segment file name.
+     * @param file
+     * @return sequence
+     */
+    static long sequence(File file) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Locate the first undelivered record and the end of the appended records.  A record whose
+     * checksum does not match was torn by a crash and ends the segment.
+     */
+    private void recover() {
+        int position = 0;
+        readPosition = -1;
+
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            int size = Math.abs(length);
+            if (length == 0 || position + HEADER_SIZE + size > buffer.capacity()) {
+                break;
+            }
+            if (length > 0) {
+                if (checksum(position + HEADER_SIZE, size) != buffer.getInt(position + 4)) {
+                    break;
+                }
+                if (readPosition < 0) {
+                    readPosition = position;
+                }
+                pending++;
+            }
+            position += HEADER_SIZE + size;
+        }
+
+        writePosition = position;
+        if (readPosition < 0) {
+            readPosition = writePosition;
+        }
+        if (writePosition + 4 <= buffer.capacity()) {
+            buffer.putInt(writePosition, 0);
+        }
+    }
+
+    /**
+     * Append a record.
+     * @param payload
+     * @return false if the segment has no room for the record
+     */
+    boolean append(byte[] payload) {
+        if (writePosition + HEADER_SIZE + payload.length > buffer.capacity()) {
+            return false;
+        }
+
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(writePosition + HEADER_SIZE);
+        slice.put(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        buffer.putInt(writePosition + 4, (int) crc.getValue());
+        buffer.putInt(writePosition, payload.length);
+
+        writePosition += HEADER_SIZE + payload.length;
+        if (writePosition + 4 <= buffer.capacity()) {
+            buffer.putInt(writePosition, 0);
+        }
+        pending++;
+        return true;
+    }
+
+    /**
+     * Read the oldest undelivered record without consuming it.
+     * @return payload or null if every appended record has been delivered
+     */
+    byte[] peek() {
+        if (readPosition >= writePosition) {
+            return null;
+        }
+
+        byte[] payload = new byte[buffer.getInt(readPosition)];
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(readPosition + HEADER_SIZE);
+        slice.get(payload);
+        return payload;
+    }
+
+    /**
+     * Mark the oldest undelivered record as delivered.
+     */
+    void consume() {
+        int length = buffer.getInt(readPosition);
+        buffer.putInt(readPosition, -length);
+        readPosition += HEADER_SIZE + length;
+        pending--;
+    }
+
+    /**
+     * Get the number of undelivered records.
+     * @return pending records
+     */
+    int getPending() {
+        return pending;
+    }
+
+    /**
+     * Force changes to the storage device.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Release the file channel.  The mapping itself is released when the buffer is garbage collected.
+     * @throws IOException
+     */
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Release the file channel and remove the segment file.
+     * @throws IOException
+     */
+    void delete() throws IOException {
+        close();
+        if (!file.delete()) {
+            throw new IOException("Unable to delete spool segment " + file);
+        }
+    }
+
+    /**
+     * Compute the CRC-32 of a region of the segment.
+     * @param offset
+     * @param length
+     * @return checksum
+     */
+    private int checksum(int offset, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset);
+        slice.limit(offset + length);
+
+        CRC32 crc = new CRC32();
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+}
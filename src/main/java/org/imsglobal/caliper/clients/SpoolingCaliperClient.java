@@ -0,0 +1,474 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.FsyncPolicy;
+import org.imsglobal.caliper.databind.JxnMapper;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.imsglobal.caliper.validators.SensorValidator;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Decorates a Sensor Client with a durable, on-disk spool.  Each Envelope sent to this client is
+ * serialized and appended to a write-ahead log of fixed-size, memory-mapped segment files; the
+ * caller is released once the append completes.  A single replay thread hands the logged envelopes
+ * to the wrapped client in order, retrying an envelope until it has been delivered, so an endpoint
+ * outage grows the spool rather than losing events or blocking application threads.  Envelopes
+ * still spooled on close are replayed by the next client opened on the same directory.  Envelopes
+ * are spooled in the form produced by the mapper of the wrapped client, and those bytes are what
+ * the wrapped client transmits on replay.
+ *
+ * <p>Delivery is at least once: an envelope sent just before a crash may be replayed again.  A
+ * replayed send has failed if the wrapped client throws or, for an AsyncClient, if the future
+ * returned by sendAsync completes exceptionally.  Transient failures such as I/O errors, throttling
+ * and server errors are retried until the envelope is delivered.  An envelope that fails
+ * permanently, for example because the endpoint rejects it with a 4xx status, is removed from the
+ * spool after the configured maximum number of attempts and written to the dead letter directory,
+ * if one is configured.  Envelopes removed this way, and envelopes that would take the spool past
+ * its maxBytes cap, are counted in the Dropped statistic.</p>
+ */
+public class SpoolingCaliperClient implements BufferingClient, DelegatingClient, Closeable {
+    private final CaliperClient delegate;
+    private final SpoolClientOptions options;
+    private final File directory;
+    private final File deadLetterDirectory;
+    private final JxnMapper mapper;
+    private final Deque<SpoolSegment> segments = new ArrayDeque<>();
+    private final Object lock = new Object();
+    private final Thread replayer;
+
+    private long nextSequence;
+    private boolean dirty;
+    private int attempts;
+    private volatile boolean closed;
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolingCaliperClient.class);
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory method.
+     * @param delegate
+     * @param options
+     * @throws IOException
+     */
+    private SpoolingCaliperClient(CaliperClient delegate, SpoolClientOptions options) throws IOException {
+        SensorValidator.chkOptions(options);
+
+        this.delegate = delegate;
+        this.options = options;
+        this.directory = new File(options.getDirectory());
+        this.deadLetterDirectory = (options.getDeadLetterDirectory() != null) ? new File(options.getDeadLetterDirectory()) : null;
+        this.mapper = AbstractClient.mapperOf(delegate);
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create spool directory " + directory);
+        }
+        if (deadLetterDirectory != null && !deadLetterDirectory.isDirectory() && !deadLetterDirectory.mkdirs()) {
+            throw new IOException("Unable to create dead letter directory " + deadLetterDirectory);
+        }
+        recover();
+
+        this.replayer = new ThreadFactoryBuilder().setNameFormat("caliper-spool-%d").setDaemon(true).build()
+            .newThread(new Runnable() {
+                @Override
+                public void run() {
+                    replay();
+                }
+            });
+        this.replayer.start();
+    }
+
+    /**
+     * Open the segments left by a previous client, oldest first, and ensure a segment is available
+     * for appending.
+     * @throws IOException
+     */
+    private void recover() throws IOException {
+        File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().endsWith(SpoolSegment.SUFFIX);
+            }
+        });
+
+        if (files != null) {
+            Arrays.sort(files, new Comparator<File>() {
+                @Override
+                public int compare(File a, File b) {
+                    return Long.compare(SpoolSegment.sequence(a), SpoolSegment.sequence(b));
+                }
+            });
+            for (File file : files) {
+                segments.addLast(SpoolSegment.open(file));
+                nextSequence = SpoolSegment.sequence(file) + 1;
+            }
+        }
+
+        if (segments.isEmpty()) {
+            segments.addLast(SpoolSegment.create(directory, nextSequence++, options.getSegmentSize()));
+        }
+    }
+
+    /**
+     * Get identifier.  The decorator shares the identifier of the wrapped client.
+     * @return id
+     */
+    @Nonnull
+    public String getId() {
+        return delegate.getId();
+    }
+
+    /**
+     * Retrieve options
+     * @return options
+     */
+    public SpoolClientOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Get statistics.  The decorator shares the statistics of the wrapped client.
+     * @return statistics
+     */
+    @Nonnull
+    public Statistics getStatistics() {
+        return delegate.getStatistics();
+    }
+
+    /**
+     * Retrieve the wrapped client.
+     * @return delegate
+     */
+    @Override
+    public CaliperClient getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Get the number of spooled envelopes awaiting delivery.
+     * @return pending envelopes
+     */
+    public int getPending() {
+        synchronized (lock) {
+            int pending = 0;
+            for (SpoolSegment segment : segments) {
+                pending += segment.getPending();
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * Get the number of spooled envelopes awaiting delivery.
+     * @return backlog
+     */
+    @Override
+    public int getBacklog() {
+        return getPending();
+    }
+
+    /**
+     * Append the Envelope to the spool.
+     * @param envelope
+     */
+    @Override
+    public void send(Envelope envelope) {
+        byte[] json;
+        try {
+            json = SerializedEnvelope.bytes(envelope, mapper);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize envelope.", e);
+        }
+
+        if (json.length + SpoolSegment.HEADER_SIZE > options.getSegmentSize()) {
+            drop("envelope of " + json.length + " bytes exceeds the spool segment size");
+            return;
+        }
+
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Spool is closed.");
+            }
+
+            SpoolSegment tail = segments.peekLast();
+            if (!tail.append(json)) {
+                if ((long) (segments.size() + 1) * options.getSegmentSize() > options.getMaxBytes()) {
+                    drop("spool is full");
+                    return;
+                }
+                try {
+                    tail = rotate(tail);
+                } catch (IOException e) {
+                    drop("unable to create spool segment: " + e.getMessage());
+                    return;
+                }
+                tail.append(json);
+            }
+
+            if (options.getFsyncPolicy() == FsyncPolicy.ALWAYS) {
+                tail.force();
+            } else {
+                dirty = true;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Seal the current tail segment and start a new one.  Must be called while holding the lock.
+     * @param tail
+     * @return new tail segment
+     * @throws IOException
+     */
+    private SpoolSegment rotate(SpoolSegment tail) throws IOException {
+        if (options.getFsyncPolicy() != FsyncPolicy.NEVER) {
+            tail.force();
+        }
+
+        SpoolSegment segment = SpoolSegment.create(directory, nextSequence++, options.getSegmentSize());
+        segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * Replay loop.  Delivers spooled envelopes in order, waiting out the retry interval whenever
+     * a send fails, and forces the spool to disk when the fsync policy is INTERVAL.
+     */
+    private void replay() {
+        long lastForce = System.currentTimeMillis();
+
+        while (!closed) {
+            byte[] payload;
+            synchronized (lock) {
+                payload = next();
+                if (payload == null) {
+                    try {
+                        lock.wait(options.getFsyncInterval());
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+            }
+
+            if (payload != null) {
+                if (deliver(payload)) {
+                    attempts = 0;
+                    synchronized (lock) {
+                        segments.peekFirst().consume();
+                        dirty = true;
+                    }
+                } else {
+                    try {
+                        Thread.sleep(options.getRetryInterval());
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+            }
+
+            if (options.getFsyncPolicy() == FsyncPolicy.INTERVAL
+                    && System.currentTimeMillis() - lastForce >= options.getFsyncInterval()) {
+                synchronized (lock) {
+                    force();
+                }
+                lastForce = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * Read the oldest undelivered envelope, deleting segments that have been fully delivered.
+     * Must be called while holding the lock.
+     * @return payload or null if the spool is empty
+     */
+    private byte[] next() {
+        while (true) {
+            SpoolSegment head = segments.peekFirst();
+            byte[] payload = head.peek();
+            if (payload != null || head == segments.peekLast()) {
+                return payload;
+            }
+
+            segments.removeFirst();
+            try {
+                head.delete();
+            } catch (IOException e) {
+                log.warn(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Hand a spooled envelope to the wrapped client.  Must be called from the replay thread.
+     * @param payload
+     * @return true if the envelope was delivered or is to be removed from the spool undelivered
+     */
+    private boolean deliver(byte[] payload) {
+        Envelope envelope;
+        try {
+            envelope = restore(payload);
+        } catch (IOException e) {
+            discard(payload, "unreadable spooled envelope: " + e.getMessage());
+            return true;
+        }
+
+        try {
+            Delivery.sendAndWait(delegate, envelope);
+            return true;
+        } catch (RuntimeException e) {
+            if (Delivery.isRetryable(e)) {
+                // Only consecutive permanent failures count toward maxAttempts
+                attempts = 0;
+                log.warn("Spool replay failed: " + e.getMessage());
+                return false;
+            }
+            if (++attempts < options.getMaxAttempts()) {
+                log.warn("Spool replay failed permanently on attempt " + attempts + ": " + e.getMessage());
+                return false;
+            }
+            discard(payload, "envelope failed " + attempts + " attempt(s): " + e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Rebuild an Envelope from its serialized form.  Data items are carried as trees and the
+     * Envelope retains the spooled bytes, which the wrapped client transmits as they are.
+     * @param payload
+     * @return envelope
+     * @throws IOException
+     */
+    private Envelope restore(byte[] payload) throws IOException {
+        JsonNode node = mapper.getObjectMapper().readTree(payload);
+        if (node == null) {
+            throw new IOException("Empty spooled envelope.");
+        }
+
+        JsonNode sendTime = node.path("sendTime");
+        List<Object> data = new ArrayList<>();
+        for (JsonNode item : node.path("data")) {
+            data.add(item);
+        }
+
+        Envelope envelope = new Envelope(node.path("sensor").asText(),
+            sendTime.isNumber() ? new DateTime(sendTime.asLong()) : DateTime.parse(sendTime.asText()),
+            node.path("dataVersion").asText(), data);
+        return SerializedEnvelope.of(envelope, mapper, payload);
+    }
+
+    /**
+     * Remove an undeliverable envelope from circulation, writing it to the dead letter directory
+     * if one is configured.
+     * @param payload
+     * @param reason
+     */
+    private void discard(byte[] payload, String reason) {
+        drop(reason);
+        if (deadLetterDirectory == null) {
+            return;
+        }
+
+        try {
+            File file = File.createTempFile("envelope-", ".dead", deadLetterDirectory);
+            Files.write(file.toPath(), payload);
+        } catch (IOException e) {
+            log.warn("Unable to write dead letter: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Force every segment with unsynced changes to disk.  Must be called while holding the lock.
+     */
+    private void force() {
+        if (dirty) {
+            for (SpoolSegment segment : segments) {
+                segment.force();
+            }
+            dirty = false;
+        }
+    }
+
+    /**
+     * Count and report an envelope that could not be spooled or delivered.
+     * @param reason
+     */
+    private void drop(String reason) {
+        log.warn("Dropping envelope: " + reason);
+        getStatistics().updateDropped(1);
+    }
+
+    /**
+     * Stop the replay thread and release the spool.  Undelivered envelopes remain on disk.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        replayer.interrupt();
+        try {
+            replayer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (lock) {
+            if (options.getFsyncPolicy() != FsyncPolicy.NEVER) {
+                force();
+            }
+            for (SpoolSegment segment : segments) {
+                try {
+                    segment.close();
+                } catch (IOException e) {
+                    log.warn(e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Factory method for instantiating a SpoolingCaliperClient.
+     * @param delegate
+     * @param options
+     * @return SpoolingCaliperClient
+     */
+    public static SpoolingCaliperClient create(CaliperClient delegate, SpoolClientOptions options) {
+        try {
+            return new SpoolingCaliperClient(delegate, options);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open spool.", e);
+        }
+    }
+}
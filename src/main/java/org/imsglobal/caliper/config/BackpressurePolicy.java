@@ -0,0 +1,26 @@
+package org.imsglobal.caliper.config;
+
+/**
+ * Strategies applied by an asynchronous client when its dispatch queue is full.
+ */
+public enum BackpressurePolicy {
+    /**
+     * Block the calling thread until queue capacity becomes available.
+     */
+    BLOCK,
+
+    /**
+     * Discard the oldest queued envelope in order to make room for the new envelope.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Discard the new envelope, leaving the queue untouched.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Send the new envelope synchronously on the calling thread.
+     */
+    CALLER_RUNS;
+}
@@ -0,0 +1,27 @@
+package org.imsglobal.caliper.config;
+
+/**
+ * Content codings that may be applied to the body of an outgoing envelope.
+ */
+public enum Compression {
+    NONE(null),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private final String value;
+
+    /**
+     * Private constructor
+     * @param value
+     */
+    private Compression(final String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return Content-Encoding header value or null if the body is sent as is
+     */
+    public String value() {
+        return value;
+    }
+}
@@ -1,10 +1,30 @@
 package org.imsglobal.caliper.config;
 
 /**
- * Data interchange formats.
+ * Data interchange formats.  The binary formats carry the same data model as CALIPER_JSONLD encoded
+ * as Jackson Smile or CBOR; they are intended for pipelines where both ends are under common control.
  */
 public enum DataFormat {
-    CALIPER_JSON,
-    CALIPER_JSONLD,
-    XAPI_JSON;
-}
\ No newline at end of file
+    CALIPER_JSON("application/json"),
+    CALIPER_JSONLD("application/json"),
+    XAPI_JSON("application/json"),
+    CALIPER_SMILE("application/x-jackson-smile"),
+    CALIPER_CBOR("application/cbor");
+
+    private final String contentType;
+
+    /**
+     * Private constructor
+     * @param contentType
+     */
+    private DataFormat(final String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return Content-Type header value for a body in this format
+     */
+    public String contentType() {
+        return contentType;
+    }
+}
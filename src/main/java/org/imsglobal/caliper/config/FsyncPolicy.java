@@ -0,0 +1,21 @@
+package org.imsglobal.caliper.config;
+
+/**
+ * Policies governing when spooled envelopes are forced from the page cache to the storage device.
+ */
+public enum FsyncPolicy {
+    /**
+     * Force the spool after every append.  Slowest; no acknowledged envelope is lost on power failure.
+     */
+    ALWAYS,
+
+    /**
+     * Force the spool periodically.  Envelopes appended since the last force may be lost on power failure.
+     */
+    INTERVAL,
+
+    /**
+     * Leave flushing to the operating system.  Survives process crashes but not power failure.
+     */
+    NEVER;
+}
@@ -0,0 +1,16 @@
+package org.imsglobal.caliper.config;
+
+/**
+ * HTTP transports available to Sensor clients.
+ */
+public enum Transport {
+    /**
+     * Blocking I/O; the sending thread waits for the HTTP round trip to complete.
+     */
+    BLOCKING,
+
+    /**
+     * Non-blocking I/O; completion is reported asynchronously by a small pool of I/O dispatch threads.
+     */
+    NON_BLOCKING;
+}
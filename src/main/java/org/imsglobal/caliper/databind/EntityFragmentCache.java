@@ -0,0 +1,183 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.imsglobal.caliper.context.JsonldContext;
+import org.imsglobal.caliper.entities.CaliperCoercible;
+
+/**
+ * Opt-in cache of pre-rendered JSON fragments for entities that recur in many events, e.g. the
+ * edApp, group, membership and session of a learner's activity.  Pinned entities are rendered once
+ * and thereafter spliced into the output as raw JSON rather than being walked bean by bean.
+ *
+ * <p>Entries are keyed by entity identity and held weakly, so an entity that is no longer
+ * referenced drops out of the cache.  A fragment is only reused by serializations that share the
+ * configuration it was rendered with and that splice it under the same enclosing @context, since
+ * the compact format omits a nested @context the enclosing node already carries.  Each pinned
+ * entity keeps up to MAX_FRAGMENTS fragments, so a Sensor fanning out to clients with different
+ * mappers does not re-render it for every send.  Only pin entities whose state, including any extensions object, is not
+ * modified after the entity is built.</p>
+ */
+public final class EntityFragmentCache {
+    private final Cache<CaliperCoercible, Pin> pins;
+    private volatile boolean active;
+
+    /**
+     * Number of fragments kept for a pinned entity.
+     */
+    public static final int MAX_FRAGMENTS = 8;
+
+    private static final EntityFragmentCache DEFAULT = new EntityFragmentCache();
+
+    /**
+     * Constructor
+     */
+    public EntityFragmentCache() {
+        this.pins = CacheBuilder.newBuilder().weakKeys().build();
+    }
+
+    /**
+     * Mark an entity for caching.  It is rendered the next time it is serialized.
+     * @param entity
+     */
+    public void pin(CaliperCoercible entity) {
+        pins.asMap().putIfAbsent(entity, new Pin());
+        active = true;
+    }
+
+    /**
+     * Stop caching an entity.
+     * @param entity
+     */
+    public void unpin(CaliperCoercible entity) {
+        pins.invalidate(entity);
+    }
+
+    /**
+     * Remove every pinned entity.
+     */
+    public void clear() {
+        pins.invalidateAll();
+    }
+
+    /**
+     * Get the number of pinned entities.
+     * @return size
+     */
+    public long size() {
+        return pins.size();
+    }
+
+    /**
+     * Determine whether an entity is pinned.
+     * @param entity
+     * @return true if pinned
+     */
+    public boolean isPinned(CaliperCoercible entity) {
+        return lookup(entity) != null;
+    }
+
+    /**
+     * Retrieve the fragments of a pinned entity.
+     * @param entity
+     * @return pin or null if the entity is not pinned
+     */
+    Pin lookup(CaliperCoercible entity) {
+        return active ? pins.getIfPresent(entity) : null;
+    }
+
+    /**
+     * Retrieve the shared default instance consulted by Caliper serializers.
+     * @return EntityFragmentCache
+     */
+    public static EntityFragmentCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * The fragments rendered for a pinned entity, one per configuration and enclosing context.
+     * Fragments are replaced oldest first once MAX_FRAGMENTS have been rendered.
+     */
+    static final class Pin {
+        private volatile Fragment[] fragments = new Fragment[0];
+
+        /**
+         * Retrieve the fragment rendered with the given configuration under the given enclosing context.
+         * @param config
+         * @param enclosing
+         * @return fragment or null if the entity has not been rendered this way
+         */
+        SerializedString get(SerializationConfig config, JsonldContext enclosing) {
+            for (Fragment fragment : fragments) {
+                if (fragment.config == config && fragment.encloses(enclosing)) {
+                    return fragment.json;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Store the fragment rendered with the given configuration under the given enclosing context.
+         * @param config
+         * @param enclosing
+         * @param json
+         * @return fragment
+         */
+        synchronized SerializedString put(SerializationConfig config, JsonldContext enclosing, String json) {
+            SerializedString existing = get(config, enclosing);
+            if (existing != null) {
+                return existing;
+            }
+
+            Fragment[] current = fragments;
+            int keep = Math.min(current.length, MAX_FRAGMENTS - 1);
+            Fragment[] next = new Fragment[keep + 1];
+            System.arraycopy(current, current.length - keep, next, 0, keep);
+            next[keep] = new Fragment(config, enclosing, new SerializedString(json));
+            fragments = next;
+            return next[keep].json;
+        }
+    }
+
+    /**
+     * A rendered entity together with the configuration and enclosing context it was rendered with.
+     */
+    private static final class Fragment {
+        private final SerializationConfig config;
+        private final JsonldContext enclosing;
+        private final SerializedString json;
+
+        private Fragment(SerializationConfig config, JsonldContext enclosing, SerializedString json) {
+            this.config = config;
+            this.enclosing = enclosing;
+            this.json = json;
+        }
+
+        private boolean encloses(JsonldContext context) {
+            if (enclosing == null || context == null) {
+                return enclosing == context;
+            }
+            return JxnNestedContextFilter.isSame(context, enclosing);
+        }
+    }
+}
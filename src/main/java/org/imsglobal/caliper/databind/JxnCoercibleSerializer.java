@@ -18,16 +18,32 @@
 
 package org.imsglobal.caliper.databind;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import org.imsglobal.caliper.context.JsonldContext;
 import org.imsglobal.caliper.entities.CaliperCoercible;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Set;
 
 public class JxnCoercibleSerializer extends JsonSerializer<CaliperCoercible> {
     private JsonSerializer<Object> defaultSerializer;
+    private EntityFragmentCache cache;
+
+    private static final JsonFactory FRAGMENT_FACTORY = new JsonFactory();
+
+    /**
+     * Per-call attributes: the ids written so far, and a marker set while a pinned fragment is rendered.
+     */
+    private static final String WRITTEN_IDS = "caliper.writtenIds";
+    private static final String RENDERING = "caliper.renderingFragment";
 
     /**
      * Constructor
@@ -41,7 +57,17 @@ public class JxnCoercibleSerializer extends JsonSerializer<CaliperCoercible> {
      * @param defaultSerializer
      */
     public JxnCoercibleSerializer(JsonSerializer<Object> defaultSerializer) {
+        this(defaultSerializer, EntityFragmentCache.getDefault());
+    }
+
+    /**
+     * Constructor that injects default serializer and the cache consulted for pinned entities.
+     * @param defaultSerializer
+     * @param cache
+     */
+    public JxnCoercibleSerializer(JsonSerializer<Object> defaultSerializer, EntityFragmentCache cache) {
         this.defaultSerializer = defaultSerializer;
+        this.cache = cache;
     }
 
     @Override
@@ -50,10 +76,81 @@ public class JxnCoercibleSerializer extends JsonSerializer<CaliperCoercible> {
 
         //System.out.print("IS_COERCED: " + value.getClass().getSimpleName() + " " + value.isCoercedToId() + "\n");
 
-        if (value.isCoercedToId()) {
+        if (value.isCoercedToId() || isWritten(value, provider)) {
             jgen.writeString(value.getId());
-        } else {
+            return;
+        }
+
+        // Pre-rendered fragments are JSON text; binary generators cannot embed them
+        if (jgen.canWriteBinaryNatively()) {
+            defaultSerializer.serialize(value, jgen, provider);
+            return;
+        }
+
+        EntityFragmentCache.Pin pin = cache.lookup(value);
+        if (pin == null) {
             defaultSerializer.serialize(value, jgen, provider);
+            return;
+        }
+
+        SerializationConfig config = provider.getConfig();
+        JsonldContext enclosing = JxnNestedContextFilter.enclosingContext(jgen.getOutputContext(), provider);
+        SerializedString fragment = pin.get(config, enclosing);
+        if (fragment == null) {
+            fragment = pin.put(config, enclosing, render(value, enclosing, jgen, provider));
+        }
+        jgen.writeRawValue(fragment);
+    }
+
+    /**
+     * Check whether the entity's id has already been written by this serialization call, recording
+     * it if not.  Always false unless the writer carries the DEDUPLICATE_ENTITIES attribute, and while
+     * a pinned fragment is rendered, since a cached fragment must not depend on what preceded it.
+     * @param value
+     * @param provider
+     * @return true if the entity should be coerced to its id
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean isWritten(CaliperCoercible value, SerializerProvider provider) {
+        if (!Boolean.TRUE.equals(provider.getAttribute(JxnMapper.DEDUPLICATE_ENTITIES))
+            || provider.getAttribute(RENDERING) != null || value.getId() == null) {
+            return false;
+        }
+
+        Set<String> written = (Set<String>) provider.getAttribute(WRITTEN_IDS);
+        if (written == null) {
+            written = new HashSet<>();
+            provider.setAttribute(WRITTEN_IDS, written);
+        }
+        return !written.add(value.getId());
+    }
+
+    /**
+     * Render a pinned entity to a standalone JSON fragment, as it would be written under the
+     * given enclosing context.
+     * @param value
+     * @param enclosing
+     * @param jgen
+     * @param provider
+     * @return JSON
+     * @throws IOException
+     */
+    private String render(CaliperCoercible value, JsonldContext enclosing, JsonGenerator jgen, SerializerProvider provider)
+        throws IOException {
+        StringWriter writer = new StringWriter();
+        JsonGenerator generator = FRAGMENT_FACTORY.createGenerator(writer);
+        generator.setCodec(jgen.getCodec());
+        Object rendering = provider.getAttribute(RENDERING);
+        Object scope = provider.getAttribute(JxnNestedContextFilter.ENCLOSING_CONTEXT);
+        provider.setAttribute(RENDERING, Boolean.TRUE);
+        provider.setAttribute(JxnNestedContextFilter.ENCLOSING_CONTEXT, enclosing);
+        try {
+            defaultSerializer.serialize(value, generator, provider);
+        } finally {
+            provider.setAttribute(RENDERING, rendering);
+            provider.setAttribute(JxnNestedContextFilter.ENCLOSING_CONTEXT, scope);
+            generator.close();
         }
+        return writer.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.ser.BeanSerializerBuilder;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import org.imsglobal.caliper.entities.CaliperEntity;
+import org.imsglobal.caliper.events.CaliperEvent;
+
+/**
+ * Assigns the nested context filter to entity and event serializers.  The assignment is made once,
+ * when Jackson builds the serializer for a type, and is cached with it.
+ */
+public class JxnCompactSerializerModifier extends BeanSerializerModifier {
+    @Override
+    public BeanSerializerBuilder updateBuilder(
+        SerializationConfig config, BeanDescription desc, BeanSerializerBuilder builder) {
+        Class<?> type = desc.getBeanClass();
+        if (CaliperEntity.class.isAssignableFrom(type) || CaliperEvent.class.isAssignableFrom(type)) {
+            builder.setFilterId(JxnFilters.SERIALIZE_WITHOUT_NESTED_CONTEXT.id());
+        }
+        return builder;
+    }
+}
@@ -24,27 +24,129 @@ import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 
 import java.io.IOException;
-import java.text.DecimalFormat;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * Overrides the global ObjectMapper serializationInclusion setting as
  * JsonInclude.Include.NON_EMPTY excludes properties of type double
  * whenever the value is set to 0.0.  Reference this custom serializer
  * by annotating the target property's accessor using @JsonSerialize annotation.
+ *
+ * Values are written with one or two fraction digits, rounded half-even, matching the
+ * DecimalFormat pattern "##0.0#" with a "." decimal separator regardless of the default locale.
+ * Zero, NaN and infinite values are written as null.  Values between 2^-4 and 2^46, where the
+ * exact and shortest decimal representations round alike, are formatted with integer arithmetic
+ * into a per-thread buffer; the remainder fall back to BigDecimal.  Binary formats receive the
+ * rounded value as a native floating-point number.
  */
 public class JxnDoubleSerializer extends JsonSerializer<Double> {
+    private static final int SCALE_BITS = 56;
+    private static final double SCALE = 0x1p56;
+    private static final long HALF = 1L << (SCALE_BITS - 1);
+    private static final long FRACTION_MASK = (1L << SCALE_BITS) - 1;
+    private static final double FAST_PATH_LIMIT = 0x1p46;
+
+    private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[24];
+        }
+    };
+
     @Override
     public void serialize(Double value, JsonGenerator jgen, SerializerProvider provider)
                                             throws IOException, JsonGenerationException {
-        if (Double.isNaN(value / value)) {
+        double d = value;
+        if (d == 0.0 || Double.isNaN(d) || Double.isInfinite(d)) {
             jgen.writeNull();
+            return;
+        }
+
+        char[] buffer = BUFFER.get();
+        int length = format(d, buffer);
+        if (jgen.canWriteBinaryNatively()) {
+            // Binary generators may encode a number given as text as a string (CBOR does), so write the rounded double
+            jgen.writeNumber(Double.parseDouble((length < 0) ? formatExact(d) : new String(buffer, 0, length)));
+        } else if (length < 0) {
+            jgen.writeNumber(formatExact(d));
+        } else if (jgen.isEnabled(JsonGenerator.Feature.WRITE_NUMBERS_AS_STRINGS)) {
+            jgen.writeNumber(new String(buffer, 0, length));
         } else {
-            // Pattern syntax: "0" = always displayed; "#" = a digit, leading zeroes omitted; "." = decimal separator
-            final String pattern = "##0.0#";
-            final DecimalFormat formatter = new DecimalFormat(pattern);
-            final String output = formatter.format(value);
+            jgen.writeRawValue(buffer, 0, length);
+        }
+    }
+
+    /**
+     * Format a finite, non-zero value into the buffer.  The fraction is scaled by 2^56, which is exact
+     * for any double of at least 2^-4, so hundredths and the rounding remainder are computed without
+     * error.  Below 2^46 the ulp is under 0.01, so rounding the exact value agrees with DecimalFormat.
+     * @param value
+     * @param buffer
+     * @return number of characters written, or -1 if the value is outside the fast path
+     */
+    static int format(double value, char[] buffer) {
+        double magnitude = Math.abs(value);
+        if (magnitude >= FAST_PATH_LIMIT) {
+            return -1;
+        }
+
+        long integer = (long) magnitude;
+        double scaled = (magnitude - integer) * SCALE;
+        long fraction = (long) scaled;
+        if (fraction != scaled) {
+            return -1;
+        }
+
+        long product = fraction * 100;
+        long hundredths = product >>> SCALE_BITS;
+        long remainder = product & FRACTION_MASK;
+        if (remainder > HALF || (remainder == HALF && (hundredths & 1) != 0)) {
+            hundredths++;
+        }
+        if (hundredths == 100) {
+            integer++;
+            hundredths = 0;
+        }
+
+        int pos = 0;
+        if (value < 0) {
+            buffer[pos++] = '-';
+        }
+
+        int digits = 1;
+        for (long remaining = integer / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buffer[i] = (char) ('0' + integer % 10);
+            integer /= 10;
+        }
+        pos += digits;
+
+        buffer[pos++] = '.';
+        buffer[pos++] = (char) ('0' + hundredths / 10);
+        if (hundredths % 10 != 0) {
+            buffer[pos++] = (char) ('0' + hundredths % 10);
+        }
+        return pos;
+    }
 
-            jgen.writeNumber(output);
+    /**
+     * Format values outside the fast path.  Like DecimalFormat, rounds the shortest decimal
+     * representation of the value, breaking a tie in those digits by the exact binary value.
+     * @param value
+     * @return formatted value
+     */
+    static String formatExact(double value) {
+        double magnitude = Math.abs(value);
+        BigDecimal shortest = new BigDecimal(Double.toString(magnitude));
+        int side = new BigDecimal(magnitude).compareTo(shortest);
+        RoundingMode mode = (side > 0) ? RoundingMode.HALF_UP : (side < 0) ? RoundingMode.HALF_DOWN : RoundingMode.HALF_EVEN;
+        String text = shortest.setScale(2, mode).toPlainString();
+        if (text.endsWith("0")) {
+            text = text.substring(0, text.length() - 1);
         }
+        return (value < 0) ? "-" + text : text;
     }
-}
\ No newline at end of file
+}
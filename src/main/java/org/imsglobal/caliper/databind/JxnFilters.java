@@ -27,7 +27,8 @@ import java.util.Map;
 public enum JxnFilters {
     SERIALIZE_ALL("serializeAll", SimpleBeanPropertyFilter.serializeAll()),
     SERIALIZE_ID_ONLY("filterOutAllExceptId", SimpleBeanPropertyFilter.filterOutAllExcept("id")),
-    SERIALIZE_WITHOUT_CONTEXT("serializeAllExceptContext", SimpleBeanPropertyFilter.serializeAllExcept("@context"));
+    SERIALIZE_WITHOUT_CONTEXT("serializeAllExceptContext", SimpleBeanPropertyFilter.serializeAllExcept("@context")),
+    SERIALIZE_WITHOUT_NESTED_CONTEXT("serializeAllExceptNestedContext", new JxnNestedContextFilter());
 
     private final String id;
     private final SimpleBeanPropertyFilter filter;
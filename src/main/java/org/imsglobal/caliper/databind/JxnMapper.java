@@ -0,0 +1,221 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.DataFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Shared, thread-safe serialization component.  Holds a single preconfigured ObjectMapper and
+ * ObjectWriter so that Jackson's serializer caches survive from one send to the next.  ObjectMapper
+ * and ObjectWriter instances are safe for concurrent use once configured; neither is reconfigured
+ * after construction.  Binary formats (Smile, CBOR) are served by separate instances configured with
+ * the same modules and filters; their Jackson dataformat modules are optional dependencies and are
+ * only loaded on first use.
+ */
+public final class JxnMapper {
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final JxnMapper deduplicating;
+
+    /**
+     * Writer attribute that, when set to Boolean.TRUE, coerces every occurrence of an entity after the
+     * first within a single serialization call to its id.  The first occurrence is written in full, so
+     * the output remains a complete JSON-LD document.
+     */
+    public static final String DEDUPLICATE_ENTITIES = "caliper.deduplicateEntities";
+
+    private static final JxnMapper DEFAULT = new JxnMapper(createObjectMapper());
+    private static final JxnMapper COMPACT = new JxnMapper(createObjectMapper()
+        .registerModule(new JxnCompactSimpleModule()));
+
+    /**
+     * Constructor.  Warms the serializer cache for the Envelope type.
+     * @param mapper
+     */
+    private JxnMapper(ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.writer = mapper.writer();
+        this.deduplicating = new JxnMapper(mapper, writer.withAttribute(DEDUPLICATE_ENTITIES, Boolean.TRUE));
+        warm(Envelope.class);
+    }
+
+    /**
+     * Constructor that shares the mapper, and thus its serializer cache, with another instance.
+     * @param mapper
+     * @param writer
+     */
+    private JxnMapper(ObjectMapper mapper, ObjectWriter writer) {
+        this.mapper = mapper;
+        this.writer = writer;
+        this.deduplicating = this;
+    }
+
+    /**
+     * Resolve and cache serializers for the given types ahead of the first send.
+     * @param types
+     * @return this mapper
+     */
+    public JxnMapper warm(Class<?>... types) {
+        for (Class<?> type : types) {
+            mapper.canSerialize(type);
+        }
+        return this;
+    }
+
+    /**
+     * Get the shared ObjectMapper.  Callers must not reconfigure it.
+     * @return ObjectMapper
+     */
+    public ObjectMapper getObjectMapper() {
+        return mapper;
+    }
+
+    /**
+     * Get the shared ObjectWriter.
+     * @return ObjectWriter
+     */
+    public ObjectWriter getWriter() {
+        return writer;
+    }
+
+    /**
+     * Get the variant of this mapper that coerces repeat occurrences of an entity to its id.
+     * @return JxnMapper
+     */
+    public JxnMapper deduplicating() {
+        return deduplicating;
+    }
+
+    /**
+     * Serialize a value to a JSON string.  Not supported by the binary format instances.
+     * @param value
+     * @return String
+     * @throws JsonProcessingException
+     */
+    public String writeValueAsString(Object value) throws JsonProcessingException {
+        return writer.writeValueAsString(value);
+    }
+
+    /**
+     * Serialize a value to a UTF-8 encoded byte array.
+     * @param value
+     * @return bytes
+     * @throws JsonProcessingException
+     */
+    public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+        return writer.writeValueAsBytes(value);
+    }
+
+    /**
+     * Serialize a value to an output stream.
+     * @param out
+     * @param value
+     * @throws IOException
+     */
+    public void writeValue(OutputStream out, Object value) throws IOException {
+        writer.writeValue(out, value);
+    }
+
+    /**
+     * Retrieve the shared default instance.
+     * @return JxnMapper
+     */
+    public static JxnMapper getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Retrieve the shared instance that coerces repeat occurrences of an entity to its id.
+     * @return JxnMapper
+     */
+    public static JxnMapper getDeduplicating() {
+        return DEFAULT.deduplicating();
+    }
+
+    /**
+     * Retrieve the shared instance that serializes the given data format.  CALIPER_JSON is served by a
+     * compact instance that omits a nested entity or event @context already in scope.
+     * @param format
+     * @return JxnMapper
+     */
+    public static JxnMapper forFormat(DataFormat format) {
+        switch (format) {
+            case CALIPER_JSON:
+                return COMPACT;
+            case CALIPER_SMILE:
+                return SmileHolder.INSTANCE;
+            case CALIPER_CBOR:
+                return CborHolder.INSTANCE;
+            default:
+                return DEFAULT;
+        }
+    }
+
+    /**
+     * Create a Caliper-friendly ObjectMapper.
+     * @return ObjectMapper
+     */
+    public static ObjectMapper createObjectMapper() {
+        return createObjectMapper(new JsonFactory());
+    }
+
+    /**
+     * Create a Caliper-friendly ObjectMapper that reads and writes the format of the given factory.
+     * @param factory
+     * @return ObjectMapper
+     */
+    public static ObjectMapper createObjectMapper(JsonFactory factory) {
+        SimpleFilterProvider provider = new SimpleFilterProvider(JxnFilters.filters())
+            .setFailOnUnknownId(true);
+
+        return new ObjectMapper(factory)
+            .setDateFormat(new ISO8601DateFormat())
+            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY)
+            .setFilterProvider(provider)
+            .registerModules(new JodaModule(), new JxnCoercibleSimpleModule());
+    }
+
+    /**
+     * Lazily created Smile instance.
+     */
+    private static final class SmileHolder {
+        private static final JxnMapper INSTANCE = new JxnMapper(createObjectMapper(new SmileFactory()));
+    }
+
+    /**
+     * Lazily created CBOR instance.
+     */
+    private static final class CborHolder {
+        private static final JxnMapper INSTANCE = new JxnMapper(createObjectMapper(new CBORFactory()));
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import org.imsglobal.caliper.context.JsonldContext;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.entities.CaliperEntity;
+import org.imsglobal.caliper.events.CaliperEvent;
+
+/**
+ * Property filter that omits an entity or event @context when the nearest enclosing entity or event
+ * carries the same context, since JSON-LD applies the enclosing context to nested nodes.  Top-level
+ * data items, and nested nodes whose context differs, keep their @context.
+ */
+public class JxnNestedContextFilter extends SimpleBeanPropertyFilter {
+    static final String CONTEXT = "@context";
+
+    /**
+     * Per-call attribute holding the context in scope where a pinned fragment will be spliced, so
+     * that the fragment is rendered as it would be in place.
+     */
+    static final String ENCLOSING_CONTEXT = "caliper.enclosingContext";
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer)
+        throws Exception {
+        if (CONTEXT.equals(writer.getName())
+                && isInherited(pojo, enclosingContext(jgen.getOutputContext().getParent(), provider))) {
+            if (!jgen.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, jgen, provider);
+            }
+            return;
+        }
+        writer.serializeAsField(pojo, jgen, provider);
+    }
+
+    /**
+     * Determine whether the context of the given node is already in scope.
+     * @param pojo
+     * @param enclosing
+     * @return true if the nearest enclosing entity or event carries the same context
+     */
+    private static boolean isInherited(Object pojo, JsonldContext enclosing) {
+        JsonldContext context = contextOf(pojo);
+        return context != null && enclosing != null && isSame(context, enclosing);
+    }
+
+    /**
+     * Find the context of the nearest entity or event enclosing the given output scope.  Relies on
+     * the bean serializers recording each object being written as the current value of its output
+     * context.  While a pinned fragment is rendered the search continues into the ENCLOSING_CONTEXT
+     * attribute.
+     * @param scope
+     * @param provider
+     * @return context or null if none is in scope
+     */
+    static JsonldContext enclosingContext(JsonStreamContext scope, SerializerProvider provider) {
+        for (; scope != null; scope = scope.getParent()) {
+            JsonldContext enclosing = contextOf(scope.getCurrentValue());
+            if (enclosing != null) {
+                return enclosing;
+            }
+        }
+        return (JsonldContext) provider.getAttribute(ENCLOSING_CONTEXT);
+    }
+
+    /**
+     * Retrieve the context of an entity or event.
+     * @param value
+     * @return context or null
+     */
+    private static JsonldContext contextOf(Object value) {
+        if (value instanceof CaliperEntity) {
+            return ((CaliperEntity) value).getContext();
+        } else if (value instanceof CaliperEvent) {
+            return ((CaliperEvent) value).getContext();
+        }
+        return null;
+    }
+
+    /**
+     * Compare two contexts.  String contexts are compared by IRI; other contexts by identity.
+     * @param context
+     * @param enclosing
+     * @return true if the contexts are the same
+     */
+    static boolean isSame(JsonldContext context, JsonldContext enclosing) {
+        if (context instanceof JsonldStringContext && enclosing instanceof JsonldStringContext) {
+            String id = ((JsonldStringContext) context).getId();
+            return id != null && id.equals(((JsonldStringContext) enclosing).getId());
+        }
+        return context == enclosing;
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.clients.BufferingClient;
+import org.imsglobal.caliper.clients.CaliperClient;
+import org.imsglobal.caliper.statistics.Statistic;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Binds the statistics of every client registered with a Sensor to a Micrometer registry.
+ * Counters are published as caliper.client.&lt;counter&gt; function counters, client backlogs as
+ * the caliper.client.backlog gauge and latency quantiles as caliper.client.latency gauges tagged
+ * by stage and quantile.  Meters read the statistics in place when the registry polls them; the
+ * quantile gauges of a stage share one histogram snapshot per poll.
+ * Clients registered after bindTo is called are not bound.  Micrometer is an optional dependency.
+ */
+public class CaliperMeterBinder implements MeterBinder {
+    private final Sensor sensor;
+
+    /**
+     * Constructor
+     * @param sensor
+     */
+    public CaliperMeterBinder(Sensor sensor) {
+        this.sensor = sensor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CaliperClient client : sensor.getMonitoredClients().values()) {
+            Tags tags = Tags.of("sensor", sensor.getId(), "client", client.getId());
+
+            for (ClientCounter counter : ClientCounter.values()) {
+                FunctionCounter.builder("caliper.client." + counter.key().replace('_', '.'),
+                        counter.of(client.getStatistics()), new ToDoubleFunction<Statistic>() {
+                        @Override
+                        public double applyAsDouble(Statistic statistic) {
+                            return statistic.getCount();
+                        }
+                    })
+                    .description(counter.description())
+                    .tags(tags)
+                    .register(registry);
+            }
+
+            if (client instanceof BufferingClient) {
+                Gauge.builder("caliper.client.backlog", (BufferingClient) client, new ToDoubleFunction<BufferingClient>() {
+                        @Override
+                        public double applyAsDouble(BufferingClient buffering) {
+                            return buffering.getBacklog();
+                        }
+                    })
+                    .description("Envelopes or events held by the client awaiting delivery")
+                    .tags(tags)
+                    .register(registry);
+            }
+
+            for (LatencyStage stage : LatencyStage.values()) {
+                SnapshotCache snapshots = new SnapshotCache(stage.of(client.getStatistics()));
+                for (final double quantile : LatencyStage.QUANTILES) {
+                    Gauge.builder("caliper.client.latency", snapshots, new ToDoubleFunction<SnapshotCache>() {
+                            @Override
+                            public double applyAsDouble(SnapshotCache cache) {
+                                return cache.get().getValueAtPercentile(quantile * 100.0) / 1e9;
+                            }
+                        })
+                        .description("Client latency by stage")
+                        .baseUnit("seconds")
+                        .tags(tags)
+                        .tag("stage", stage.key())
+                        .tag("quantile", Double.toString(quantile))
+                        .register(registry);
+                }
+            }
+        }
+    }
+}
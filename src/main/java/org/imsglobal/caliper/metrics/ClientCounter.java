@@ -0,0 +1,87 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import org.imsglobal.caliper.statistics.Statistic;
+import org.imsglobal.caliper.statistics.Statistics;
+
+/**
+ * Statistics counters published by the exporters.
+ */
+enum ClientCounter {
+    MEASURES("measures", "Envelopes handed to the client"),
+    SUCCESSFUL("successful", "Envelopes delivered"),
+    FAILED("failed", "Envelopes that could not be delivered"),
+    DROPPED("dropped", "Envelopes discarded before delivery"),
+    RETRIED("retried", "Retried delivery attempts"),
+    CIRCUIT_OPENED("circuit_opened", "Times the circuit breaker opened"),
+    SHORT_CIRCUITED("short_circuited", "Envelopes rejected or diverted by an open circuit");
+
+    private final String key;
+    private final String description;
+
+    /**
+     * Private constructor
+     * @param key
+     * @param description
+     */
+    private ClientCounter(final String key, final String description) {
+        this.key = key;
+        this.description = description;
+    }
+
+    /**
+     * @return metric name fragment
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * @return help text
+     */
+    String description() {
+        return description;
+    }
+
+    /**
+     * Resolve the counter in a client's statistics.
+     * @param statistics
+     * @return statistic
+     */
+    Statistic of(Statistics statistics) {
+        switch (this) {
+            case MEASURES:
+                return statistics.getMeasures();
+            case SUCCESSFUL:
+                return statistics.getSuccessful();
+            case FAILED:
+                return statistics.getFailed();
+            case DROPPED:
+                return statistics.getDropped();
+            case RETRIED:
+                return statistics.getRetried();
+            case CIRCUIT_OPENED:
+                return statistics.getCircuitOpened();
+            case SHORT_CIRCUITED:
+            default:
+                return statistics.getShortCircuited();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import org.imsglobal.caliper.clients.BufferingClient;
+import org.imsglobal.caliper.clients.CaliperClient;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Standard MBean backed by the live statistics of a Sensor client.  Attributes are read on demand;
+ * the percentile attributes of a stage share one histogram snapshot per scrape.
+ */
+public class ClientStatistics implements ClientStatisticsMBean {
+    private final CaliperClient client;
+    private final Map<LatencyStage, SnapshotCache> snapshots = new EnumMap<>(LatencyStage.class);
+
+    /**
+     * Constructor
+     * @param client
+     */
+    public ClientStatistics(CaliperClient client) {
+        this.client = client;
+        for (LatencyStage stage : LatencyStage.values()) {
+            snapshots.put(stage, new SnapshotCache(stage.of(client.getStatistics())));
+        }
+    }
+
+    @Override
+    public long getMeasures() {
+        return count(ClientCounter.MEASURES);
+    }
+
+    @Override
+    public long getSuccessful() {
+        return count(ClientCounter.SUCCESSFUL);
+    }
+
+    @Override
+    public long getFailed() {
+        return count(ClientCounter.FAILED);
+    }
+
+    @Override
+    public long getDropped() {
+        return count(ClientCounter.DROPPED);
+    }
+
+    @Override
+    public long getRetried() {
+        return count(ClientCounter.RETRIED);
+    }
+
+    @Override
+    public long getCircuitOpened() {
+        return count(ClientCounter.CIRCUIT_OPENED);
+    }
+
+    @Override
+    public long getShortCircuited() {
+        return count(ClientCounter.SHORT_CIRCUITED);
+    }
+
+    @Override
+    public int getBacklog() {
+        return (client instanceof BufferingClient) ? ((BufferingClient) client).getBacklog() : -1;
+    }
+
+    @Override
+    public double getSerializeP50Millis() {
+        return millis(LatencyStage.SERIALIZE, 50.0);
+    }
+
+    @Override
+    public double getSerializeP99Millis() {
+        return millis(LatencyStage.SERIALIZE, 99.0);
+    }
+
+    @Override
+    public double getQueueP50Millis() {
+        return millis(LatencyStage.QUEUE, 50.0);
+    }
+
+    @Override
+    public double getQueueP99Millis() {
+        return millis(LatencyStage.QUEUE, 99.0);
+    }
+
+    @Override
+    public double getRoundTripP50Millis() {
+        return millis(LatencyStage.ROUND_TRIP, 50.0);
+    }
+
+    @Override
+    public double getRoundTripP99Millis() {
+        return millis(LatencyStage.ROUND_TRIP, 99.0);
+    }
+
+    @Override
+    public double getRoundTripP999Millis() {
+        return millis(LatencyStage.ROUND_TRIP, 99.9);
+    }
+
+    @Override
+    public double getEndToEndP50Millis() {
+        return millis(LatencyStage.END_TO_END, 50.0);
+    }
+
+    @Override
+    public double getEndToEndP99Millis() {
+        return millis(LatencyStage.END_TO_END, 99.0);
+    }
+
+    @Override
+    public double getEndToEndP999Millis() {
+        return millis(LatencyStage.END_TO_END, 99.9);
+    }
+
+    private long count(ClientCounter counter) {
+        return counter.of(client.getStatistics()).getCount();
+    }
+
+    private double millis(LatencyStage stage, double percentile) {
+        return snapshots.get(stage).get().getValueAtPercentile(percentile) / 1e6;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+/**
+ * JMX management interface exposing the statistics of one Sensor client.  Latencies are
+ * expressed in milliseconds.  Backlog is -1 for clients that do not buffer envelopes.
+ */
+public interface ClientStatisticsMBean {
+
+    long getMeasures();
+
+    long getSuccessful();
+
+    long getFailed();
+
+    long getDropped();
+
+    long getRetried();
+
+    long getCircuitOpened();
+
+    long getShortCircuited();
+
+    int getBacklog();
+
+    double getSerializeP50Millis();
+
+    double getSerializeP99Millis();
+
+    double getQueueP50Millis();
+
+    double getQueueP99Millis();
+
+    double getRoundTripP50Millis();
+
+    double getRoundTripP99Millis();
+
+    double getRoundTripP999Millis();
+
+    double getEndToEndP50Millis();
+
+    double getEndToEndP99Millis();
+
+    double getEndToEndP999Millis();
+}
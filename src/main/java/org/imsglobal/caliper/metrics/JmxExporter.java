@@ -0,0 +1,139 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.clients.CaliperClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Publishes the statistics of every client registered with a Sensor as a ClientStatisticsMBean
+ * named org.imsglobal.caliper:type=Client,sensor=&lt;sensor id&gt;,client=&lt;client id&gt;.
+ * Call refresh() after registering or unregistering clients; close() removes every MBean.
+ */
+public class JmxExporter implements Closeable {
+    private final Sensor sensor;
+    private final MBeanServer server;
+    private final Set<ObjectName> registered = new HashSet<>();
+
+    private static final String DOMAIN = "org.imsglobal.caliper";
+
+    private static final Logger log = LoggerFactory.getLogger(JmxExporter.class);
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory methods.
+     * @param sensor
+     * @param server
+     */
+    private JmxExporter(Sensor sensor, MBeanServer server) {
+        this.sensor = sensor;
+        this.server = server;
+        refresh();
+    }
+
+    /**
+     * Register MBeans for newly registered clients and remove those of unregistered clients.
+     */
+    public synchronized void refresh() {
+        Set<ObjectName> current = new HashSet<>();
+        for (CaliperClient client : sensor.getMonitoredClients().values()) {
+            ObjectName name = name(client);
+            current.add(name);
+            if (!registered.contains(name)) {
+                try {
+                    server.registerMBean(new ClientStatistics(client), name);
+                    registered.add(name);
+                } catch (JMException e) {
+                    log.warn("Unable to register " + name + ": " + e.getMessage());
+                }
+            }
+        }
+
+        for (Iterator<ObjectName> it = registered.iterator(); it.hasNext(); ) {
+            ObjectName name = it.next();
+            if (!current.contains(name)) {
+                unregister(name);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove every MBean registered by this exporter.
+     */
+    @Override
+    public synchronized void close() {
+        for (ObjectName name : registered) {
+            unregister(name);
+        }
+        registered.clear();
+    }
+
+    /**
+     * Build the ObjectName of a client MBean.
+     * @param client
+     * @return name
+     */
+    public ObjectName name(CaliperClient client) {
+        try {
+            return new ObjectName(DOMAIN + ":type=Client,sensor=" + ObjectName.quote(sensor.getId())
+                + ",client=" + ObjectName.quote(client.getId()));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private void unregister(ObjectName name) {
+        try {
+            server.unregisterMBean(name);
+        } catch (JMException e) {
+            log.warn("Unable to unregister " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Factory method for instantiating a JmxExporter on the platform MBean server.
+     * @param sensor
+     * @return JmxExporter
+     */
+    public static JmxExporter create(Sensor sensor) {
+        return create(sensor, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Factory method for instantiating a JmxExporter on the given MBean server.
+     * @param sensor
+     * @param server
+     * @return JmxExporter
+     */
+    public static JmxExporter create(Sensor sensor, MBeanServer server) {
+        return new JmxExporter(sensor, server);
+    }
+}
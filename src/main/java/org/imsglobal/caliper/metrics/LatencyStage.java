@@ -0,0 +1,73 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import org.imsglobal.caliper.statistics.LatencyHistogram;
+import org.imsglobal.caliper.statistics.Statistics;
+
+/**
+ * Latency histograms published by the exporters, together with the quantiles reported for each.
+ */
+enum LatencyStage {
+    SERIALIZE("serialize"),
+    QUEUE("queue"),
+    ROUND_TRIP("round_trip"),
+    END_TO_END("end_to_end");
+
+    /**
+     * Quantiles reported for every stage.
+     */
+    static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final String key;
+
+    /**
+     * Private constructor
+     * @param key
+     */
+    private LatencyStage(final String key) {
+        this.key = key;
+    }
+
+    /**
+     * @return stage label value
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * Resolve the stage histogram in a client's statistics.
+     * @param statistics
+     * @return histogram
+     */
+    LatencyHistogram of(Statistics statistics) {
+        switch (this) {
+            case SERIALIZE:
+                return statistics.getSerializeLatency();
+            case QUEUE:
+                return statistics.getQueueLatency();
+            case ROUND_TRIP:
+                return statistics.getRoundTripLatency();
+            case END_TO_END:
+            default:
+                return statistics.getEndToEndLatency();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.clients.BufferingClient;
+import org.imsglobal.caliper.clients.CaliperClient;
+import org.imsglobal.caliper.statistics.LatencyHistogram;
+import org.imsglobal.caliper.statistics.Statistics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders the statistics of every client registered with a Sensor in the Prometheus text
+ * exposition format (version 0.0.4).  Counters are exported as caliper_client_*_total, client
+ * backlogs as the caliper_client_backlog gauge and latency histograms as the
+ * caliper_client_latency_seconds summary, labelled by stage and quantile.  A scrape reads the
+ * statistics in place and takes one histogram snapshot per stage; it does not block senders.
+ */
+public class PrometheusExporter {
+    private final Sensor sensor;
+
+    /**
+     * Content type of the exposition format.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory method.
+     * @param sensor
+     */
+    private PrometheusExporter(Sensor sensor) {
+        this.sensor = sensor;
+    }
+
+    /**
+     * Render the current statistics.
+     * @return exposition text
+     */
+    public String scrape() {
+        StringWriter writer = new StringWriter();
+        try {
+            write(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Write the current statistics to a writer, e.g. the body of an HTTP response.
+     * @param writer
+     * @throws IOException
+     */
+    public void write(Writer writer) throws IOException {
+        List<CaliperClient> clients = new ArrayList<>(sensor.getMonitoredClients().values());
+
+        for (ClientCounter counter : ClientCounter.values()) {
+            String name = "caliper_client_" + counter.key() + "_total";
+            header(writer, name, counter.description(), "counter");
+            for (CaliperClient client : clients) {
+                sample(writer, name, labels(client, null, null), counter.of(client.getStatistics()).getCount());
+            }
+        }
+
+        header(writer, "caliper_client_backlog", "Envelopes or events held by the client awaiting delivery", "gauge");
+        for (CaliperClient client : clients) {
+            if (client instanceof BufferingClient) {
+                sample(writer, "caliper_client_backlog", labels(client, null, null), ((BufferingClient) client).getBacklog());
+            }
+        }
+
+        header(writer, "caliper_client_latency_seconds", "Client latency by stage", "summary");
+        for (CaliperClient client : clients) {
+            Statistics statistics = client.getStatistics();
+            for (LatencyStage stage : LatencyStage.values()) {
+                LatencyHistogram.Snapshot snapshot = stage.of(statistics).snapshot();
+                for (double quantile : LatencyStage.QUANTILES) {
+                    sample(writer, "caliper_client_latency_seconds", labels(client, stage, quantile),
+                        seconds(snapshot.getValueAtPercentile(quantile * 100.0)));
+                }
+                sample(writer, "caliper_client_latency_seconds_sum", labels(client, stage, null),
+                    seconds(snapshot.getMean() * snapshot.getCount()));
+                sample(writer, "caliper_client_latency_seconds_count", labels(client, stage, null), snapshot.getCount());
+            }
+        }
+    }
+
+    /**
+     * Write the HELP and TYPE lines of a metric family.
+     */
+    private static void header(Writer writer, String name, String help, String type) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    /**
+     * Write a single sample line.
+     */
+    private static void sample(Writer writer, String name, String labels, double value) throws IOException {
+        writer.write(name);
+        writer.write(labels);
+        writer.write(' ');
+        writer.write((value == Math.rint(value) && !Double.isInfinite(value)) ? Long.toString((long) value) : Double.toString(value));
+        writer.write('\n');
+    }
+
+    /**
+     * Build the label set of a sample.
+     */
+    private String labels(CaliperClient client, LatencyStage stage, Double quantile) {
+        StringBuilder builder = new StringBuilder("{sensor=\"").append(escape(sensor.getId()))
+            .append("\",client=\"").append(escape(client.getId())).append('"');
+        if (stage != null) {
+            builder.append(",stage=\"").append(stage.key()).append('"');
+        }
+        if (quantile != null) {
+            builder.append(",quantile=\"").append(quantile).append('"');
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Escape a label value.
+     * @param value
+     * @return escaped value
+     */
+    static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Convert nanoseconds to seconds.
+     */
+    private static double seconds(double nanos) {
+        return nanos / 1e9;
+    }
+
+    /**
+     * Factory method for instantiating a PrometheusExporter.
+     * @param sensor
+     * @return PrometheusExporter
+     */
+    public static PrometheusExporter create(Sensor sensor) {
+        return new PrometheusExporter(sensor);
+    }
+}
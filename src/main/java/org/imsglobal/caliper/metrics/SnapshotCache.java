@@ -0,0 +1,74 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import org.imsglobal.caliper.statistics.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares one snapshot of a latency histogram between the meters or attributes read in a single
+ * scrape.  Taking a snapshot copies every bucket of the histogram, so the percentile readers of a
+ * stage reuse the latest snapshot until it is older than MAX_AGE rather than taking one each.
+ */
+final class SnapshotCache {
+
+    /**
+     * Age after which the next read takes a fresh snapshot, in nanoseconds.
+     */
+    static final long MAX_AGE = TimeUnit.SECONDS.toNanos(1);
+
+    private final LatencyHistogram histogram;
+    private volatile Entry entry;
+
+    /**
+     * Constructor
+     * @param histogram
+     */
+    SnapshotCache(LatencyHistogram histogram) {
+        this.histogram = histogram;
+    }
+
+    /**
+     * Get a snapshot of the histogram no older than MAX_AGE.
+     * @return snapshot
+     */
+    LatencyHistogram.Snapshot get() {
+        long now = System.nanoTime();
+        Entry current = entry;
+        if (current == null || now - current.takenAt > MAX_AGE) {
+            current = new Entry(histogram.snapshot(), now);
+            entry = current;
+        }
+        return current.snapshot;
+    }
+
+    /**
+     * A snapshot and the time at which it was taken.
+     */
+    private static final class Entry {
+        private final LatencyHistogram.Snapshot snapshot;
+        private final long takenAt;
+
+        private Entry(LatencyHistogram.Snapshot snapshot, long takenAt) {
+            this.snapshot = snapshot;
+            this.takenAt = takenAt;
+        }
+    }
+}
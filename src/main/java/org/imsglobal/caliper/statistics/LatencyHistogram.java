@@ -0,0 +1,269 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.statistics;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent latency histogram in the style of HdrHistogram.  Values are recorded in nanoseconds
+ * into log-linear buckets: each power-of-two range is split into 64 linear sub-buckets, so any
+ * reported value is within 1/64 (about 1.6%) of the value recorded.  Values above roughly 18
+ * minutes are clamped.  Recording is lock-free and allocation-free; percentiles are computed from
+ * snapshots taken on demand.
+ */
+public class LatencyHistogram implements Serializable {
+
+    private static final long serialVersionUID = 3079462416598361487L;
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+    private static final int HIGHEST_BIT = 40;
+
+    /**
+     * Largest value that can be recorded without clamping, in nanoseconds.
+     */
+    public static final long HIGHEST_TRACKABLE_VALUE = (1L << HIGHEST_BIT) - 1;
+
+    private static final int LENGTH = index(HIGHEST_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(LENGTH);
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+    private long[] interval = new long[LENGTH];
+
+    /**
+     * Record a latency.
+     * @param nanos
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0L), HIGHEST_TRACKABLE_VALUE);
+
+        counts.incrementAndGet(index(value));
+        total.add(value);
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Record the time elapsed since the given System.nanoTime() reading.
+     * @param startNanos
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Get the number of recorded values.
+     * @return count
+     */
+    public long getCount() {
+        return snapshot().getCount();
+    }
+
+    /**
+     * Get the value at the given percentile of all values recorded so far.
+     * @param percentile between 0 and 100
+     * @return value in nanoseconds
+     */
+    public long getValueAtPercentile(double percentile) {
+        return snapshot().getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Take a snapshot of all values recorded so far.
+     * @return snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, total.sum(), max.get());
+    }
+
+    /**
+     * Take a snapshot of the values recorded since the previous interval snapshot.  The mean and
+     * max of an interval snapshot are derived from its buckets.
+     * @return snapshot
+     */
+    public synchronized Snapshot intervalSnapshot() {
+        long[] current = new long[LENGTH];
+        long[] delta = new long[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            current[i] = counts.get(i);
+            delta[i] = current[i] - interval[i];
+        }
+        interval = current;
+        return new Snapshot(delta, -1L, -1L);
+    }
+
+    /**
+     * Discard every recorded value.
+     */
+    public synchronized void reset() {
+        for (int i = 0; i < LENGTH; i++) {
+            counts.set(i, 0L);
+        }
+        total.reset();
+        max.set(0L);
+        interval = new long[LENGTH];
+    }
+
+    /**
+     * Map a value to its bucket index.  Values below 128 have their own bucket; above that, each
+     * power-of-two range contributes 64 buckets.
+     * @param value
+     * @return index
+     */
+    static int index(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + (subBucket - SUB_BUCKET_HALF);
+    }
+
+    /**
+     * Map a bucket index to the highest value that falls within the bucket.
+     * @param index
+     * @return value
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * An immutable view of the histogram counts.
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        /**
+         * Constructor
+         * @param counts
+         * @param sum exact sum of the values or -1 to estimate it from the buckets
+         * @param max exact max of the values or -1 to estimate it from the buckets
+         */
+        private Snapshot(long[] counts, long sum, long max) {
+            long count = 0L;
+            long estimatedSum = 0L;
+            int highest = -1;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    count += counts[i];
+                    estimatedSum += counts[i] * highestValue(i);
+                    highest = i;
+                }
+            }
+
+            this.counts = counts;
+            this.count = count;
+            this.sum = (sum >= 0) ? sum : estimatedSum;
+            this.max = (max >= 0) ? max : ((highest >= 0) ? highestValue(highest) : 0L);
+        }
+
+        /**
+         * Get the number of values in the snapshot.
+         * @return count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Get the mean value.
+         * @return mean in nanoseconds
+         */
+        public double getMean() {
+            return (count > 0) ? (double) sum / count : 0.0;
+        }
+
+        /**
+         * Get the maximum value.
+         * @return max in nanoseconds
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Get the value at the given percentile.
+         * @param percentile between 0 and 100
+         * @return value in nanoseconds
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0L;
+            }
+
+            long rank = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+            long seen = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), max);
+                }
+            }
+            return max;
+        }
+
+        public long getP50() {
+            return getValueAtPercentile(50.0);
+        }
+
+        public long getP90() {
+            return getValueAtPercentile(90.0);
+        }
+
+        public long getP99() {
+            return getValueAtPercentile(99.0);
+        }
+
+        public long getP999() {
+            return getValueAtPercentile(99.9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[Count : %d], [p50 : %s ms], [p90 : %s ms], [p99 : %s ms], [p99.9 : %s ms], [Max : %s ms]",
+                count, millis(getP50()), millis(getP90()), millis(getP99()), millis(getP999()), millis(max));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
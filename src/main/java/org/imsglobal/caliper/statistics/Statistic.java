@@ -18,38 +18,36 @@
 
 package org.imsglobal.caliper.statistics;
 
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A statistic that captures properties {min, max, avg, sum, std.dev} of 
  * a series of numeric values.
  *
+ * Updates are lock-free.  The count and sums are held in LongAdder and DoubleAdder, which spread
+ * contended updates over padded cells and move a thread to another cell when its update collides
+ * with one from another thread.  Variance is computed from sums of values shifted by the first
+ * value recorded, which keeps the sums small and avoids the cancellation of the textbook formula.
+ * Reads are not atomic with respect to concurrent updates.
  */
 public class Statistic {
 
-    private AtomicDouble sum;
-    private AtomicInteger count;
+    private static final long UNSET = Double.doubleToRawLongBits(Double.NaN);
 
-    private AtomicDouble last;
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+    private final DoubleAdder shiftedSum = new DoubleAdder();
+    private final DoubleAdder shiftedSumOfSquares = new DoubleAdder();
+    private final AtomicLong shift = new AtomicLong(UNSET);
+    private final AtomicLong min = new AtomicLong(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+    private final AtomicLong max = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
 
-    // Standard deviation variables based on
-    // http://www.johndcook.com/standard_deviation.html
-    private AtomicBoolean lock;
-
-    private double oldM;
-    private double newM;
-    private double oldS;
-    private double newS;
-
-    private double min;
-    private double max;
+    private volatile double last;
 
     public Statistic() {
-        sum = new AtomicDouble(0.0);
-        count = new AtomicInteger(0);
-        last = new AtomicDouble(0.0);
-        lock = new AtomicBoolean(false);
+
     }
 
     /**
@@ -57,57 +55,40 @@ public class Statistic {
      * @param val
      */
     public void update(double val) {
+        long bits = shift.get();
+        if (bits == UNSET && !shift.compareAndSet(UNSET, Double.doubleToRawLongBits(val))) {
+            bits = shift.get();
+        }
+        double shifted = (bits == UNSET) ? 0.0 : val - Double.longBitsToDouble(bits);
 
-        int n = count.addAndGet(1);
-
-        if (lock.compareAndSet(false, true)) {
-            if (n == 1) {
-                // this is the first time we are executing, so clear the numbers
-
-                oldM = newM = val;
-                oldS = 0.0;
-
-                min = val;
-                max = val;
-            } else {
-                // this is not our first update
-                newM = oldM + (val - oldM) / n;
-                newS = oldS + (val - oldM) * (val * newM);
-
-                oldM = newM;
-                oldS = newS;
-            }
-
-            if (val < min) {
-                min = val;
-            }
-
-            if (val > max) {
-                max = val;
-            }
+        count.increment();
+        sum.add(val);
+        shiftedSum.add(shifted);
+        shiftedSumOfSquares.add(shifted * shifted);
 
-            lock.set(false);
+        long current;
+        while (val < Double.longBitsToDouble(current = min.get())
+                && !min.compareAndSet(current, Double.doubleToRawLongBits(val))) {
+            // lost a race with another new minimum
+        }
+        while (val > Double.longBitsToDouble(current = max.get())
+                && !max.compareAndSet(current, Double.doubleToRawLongBits(val))) {
+            // lost a race with another new maximum
         }
 
-        sum.addAndGet(val);
-
-        last.set(val);
+        last = val;
     }
 
     public void clear() {
-        count.set(0);
-        sum.set(0.0);
-
-        last.set(0.0);
-
-        min = 0;
-        max = 0;
-
-        oldM = 0;
-        newM = 0;
-        oldS = 0;
-        newS = 0;
-
+        count.reset();
+        sum.reset();
+        shiftedSum.reset();
+        shiftedSumOfSquares.reset();
+        shift.set(UNSET);
+        min.set(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+        max.set(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+
+        last = 0.0;
     }
 
     /**
@@ -115,7 +96,7 @@ public class Statistic {
      * @return
      */
     public double getSum() {
-        return sum.get();
+        return sum.sum();
     }
 
     /**
@@ -123,7 +104,7 @@ public class Statistic {
      * @return
      */
     public int getCount() {
-        return count.get();
+        return count.intValue();
     }
 
     /**
@@ -131,7 +112,8 @@ public class Statistic {
      * @return
      */
     public double getAverage() {
-        return count.get() > 0 ? (sum.get() / count.get()) : 0.0;
+        long n = count.sum();
+        return (n > 0) ? sum.sum() / n : 0.0;
     }
 
     /**
@@ -139,7 +121,14 @@ public class Statistic {
      * @return
      */
     public double getVariance() {
-        return (count.get() > 1) ? newS / (count.get() - 1) : 1.0;
+        long n = count.sum();
+        if (n < 2) {
+            return 0.0;
+        }
+
+        double s1 = shiftedSum.sum();
+        double variance = (shiftedSumOfSquares.sum() - s1 * s1 / n) / (n - 1);
+        return Math.max(0.0, variance);
     }
 
     /**
@@ -155,7 +144,7 @@ public class Statistic {
      * @return
      */
     public double getMin() {
-        return min;
+        return (count.sum() > 0) ? Double.longBitsToDouble(min.get()) : 0.0;
     }
 
     /**
@@ -163,7 +152,7 @@ public class Statistic {
      * @return
      */
     public double getMax() {
-        return max;
+        return (count.sum() > 0) ? Double.longBitsToDouble(max.get()) : 0.0;
     }
 
     /**
@@ -171,12 +160,15 @@ public class Statistic {
      * @return
      */
     public double getLast() {
-        return last.get();
+        return last;
     }
 
     @Override
     public String toString() {
 
+        double min = getMin();
+        double max = getMax();
+
         if (min == 1.0 && max == 1.0) {
 
             // this is just a count
@@ -186,8 +178,8 @@ public class Statistic {
 
             return String.format(
                 "[Count : %d], [Min : %s], [Max : %s], [Average : %s], [Std. Dev. : %s]",
-                getCount(), getMin(), getMax(), getAverage(), getStandardDeviation());
+                getCount(), min, max, getAverage(), getStandardDeviation());
 
         }
     }
-}
\ No newline at end of file
+}
@@ -18,46 +18,252 @@
 
 package org.imsglobal.caliper.statistics;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
 
+/**
+ * Per-client statistics.  The well-known statistics are held in fixed fields so that the send path
+ * updates them without any map lookup; each is also entered in the map under its key when the
+ * Statistics is created, so iteration and lookup by key continue to see them.  The map methods
+ * reject any attempt to replace or remove a well-known statistic, which would leave the map out of
+ * step with its field; removal through an iterator of the key, value or entry views is not checked.
+ */
 public class Statistics extends StatisticsMap {
 
     private static final long serialVersionUID = 5469315718941515883L;
 
-    private static String MEASURE_KEY = "Measure";
-    private static String DESCRIBE_KEY = "Describe";
+    private static final String MEASURE_KEY = "Measure";
+    private static final String DESCRIBE_KEY = "Describe";
+
+    private static final String SUCCESSFUL_KEY = "Successful";
+    private static final String FAILED_KEY = "Failed";
+    private static final String DROPPED_KEY = "Dropped";
+    private static final String RETRIED_KEY = "Retried";
+    private static final String CIRCUIT_OPENED_KEY = "CircuitOpened";
+    private static final String SHORT_CIRCUITED_KEY = "ShortCircuited";
+
+    private static final Set<String> FIXED_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        MEASURE_KEY, DESCRIBE_KEY, SUCCESSFUL_KEY, FAILED_KEY, DROPPED_KEY, RETRIED_KEY, CIRCUIT_OPENED_KEY,
+        SHORT_CIRCUITED_KEY)));
+
+    private final Statistic measures = register(MEASURE_KEY);
+    private final Statistic describes = register(DESCRIBE_KEY);
+    private final Statistic successful = register(SUCCESSFUL_KEY);
+    private final Statistic failed = register(FAILED_KEY);
+    private final Statistic dropped = register(DROPPED_KEY);
+    private final Statistic retried = register(RETRIED_KEY);
+    private final Statistic circuitOpened = register(CIRCUIT_OPENED_KEY);
+    private final Statistic shortCircuited = register(SHORT_CIRCUITED_KEY);
+
+    private final LatencyHistogram serializeLatency = new LatencyHistogram();
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+    private final LatencyHistogram roundTripLatency = new LatencyHistogram();
+    private final LatencyHistogram endToEndLatency = new LatencyHistogram();
+
+    /**
+     * Create a well-known statistic and enter it in the map.
+     * @param key
+     * @return statistic
+     */
+    private Statistic register(String key) {
+        Statistic statistic = new Statistic();
+        super.put(key, statistic);
+        return statistic;
+    }
 
-    private static String SUCCESSFUL_KEY = "Successful";
-    private static String FAILED_KEY = "Failed";
+    /**
+     * Reject a change to the entry of a well-known statistic.
+     * @param key
+     */
+    private static void checkNotFixed(Object key) {
+        if (FIXED_KEYS.contains(key)) {
+            throw new UnsupportedOperationException("Statistic " + key + " cannot be replaced or removed");
+        }
+    }
+
+    @Override
+    public Statistic put(String key, Statistic value) {
+        checkNotFixed(key);
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Statistic> m) {
+        for (String key : m.keySet()) {
+            checkNotFixed(key);
+        }
+        super.putAll(m);
+    }
+
+    @Override
+    public Statistic putIfAbsent(String key, Statistic value) {
+        checkNotFixed(key);
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public Statistic remove(Object key) {
+        checkNotFixed(key);
+        return super.remove(key);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        checkNotFixed(key);
+        return super.remove(key, value);
+    }
+
+    @Override
+    public Statistic replace(String key, Statistic value) {
+        checkNotFixed(key);
+        return super.replace(key, value);
+    }
+
+    @Override
+    public boolean replace(String key, Statistic oldValue, Statistic newValue) {
+        checkNotFixed(key);
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public void replaceAll(final BiFunction<? super String, ? super Statistic, ? extends Statistic> function) {
+        super.replaceAll(new BiFunction<String, Statistic, Statistic>() {
+            @Override
+            public Statistic apply(String key, Statistic value) {
+                Statistic replacement = function.apply(key, value);
+                if (replacement != value) {
+                    checkNotFixed(key);
+                }
+                return replacement;
+            }
+        });
+    }
+
+    @Override
+    public Statistic compute(String key, BiFunction<? super String, ? super Statistic, ? extends Statistic> function) {
+        checkNotFixed(key);
+        return super.compute(key, function);
+    }
+
+    @Override
+    public Statistic computeIfPresent(String key, BiFunction<? super String, ? super Statistic, ? extends Statistic> function) {
+        checkNotFixed(key);
+        return super.computeIfPresent(key, function);
+    }
+
+    @Override
+    public Statistic merge(String key, Statistic value, BiFunction<? super Statistic, ? super Statistic, ? extends Statistic> function) {
+        checkNotFixed(key);
+        return super.merge(key, value, function);
+    }
+
+    /**
+     * The well-known statistics cannot be removed, so the map cannot be cleared.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Statistics cannot be cleared");
+    }
 
     public Statistic getDescribes() {
-        return ensure(DESCRIBE_KEY);
+        return describes;
     }
 
     public void updateDescribes(double val) {
-        update(DESCRIBE_KEY, val);
+        describes.update(val);
     }
 
     public Statistic getMeasures() {
-        return ensure(MEASURE_KEY);
+        return measures;
     }
 
     public void updateMeasures(double val) {
-        update(MEASURE_KEY, val);
+        measures.update(val);
     }
 
     public Statistic getSuccessful() {
-        return ensure(SUCCESSFUL_KEY);
+        return successful;
     }
 
     public void updateSuccessful(double val) {
-        update(SUCCESSFUL_KEY, val);
+        successful.update(val);
     }
 
     public Statistic getFailed() {
-        return ensure(FAILED_KEY);
+        return failed;
     }
 
     public void updateFailed(double val) {
-        update(FAILED_KEY, val);
+        failed.update(val);
+    }
+
+    public Statistic getDropped() {
+        return dropped;
+    }
+
+    public void updateDropped(double val) {
+        dropped.update(val);
+    }
+
+    public Statistic getRetried() {
+        return retried;
+    }
+
+    public void updateRetried(double val) {
+        retried.update(val);
+    }
+
+    public Statistic getCircuitOpened() {
+        return circuitOpened;
+    }
+
+    public void updateCircuitOpened(double val) {
+        circuitOpened.update(val);
+    }
+
+    public Statistic getShortCircuited() {
+        return shortCircuited;
+    }
+
+    public void updateShortCircuited(double val) {
+        shortCircuited.update(val);
+    }
+
+    /**
+     * Time spent serializing an envelope.  For envelopes streamed to the connection this includes
+     * writing the request body.
+     * @return histogram
+     */
+    public LatencyHistogram getSerializeLatency() {
+        return serializeLatency;
+    }
+
+    /**
+     * Time an envelope waited in a dispatch queue before a worker picked it up.
+     * @return histogram
+     */
+    public LatencyHistogram getQueueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * Time from issuing an HTTP POST to receiving its response, recorded once per attempt.
+     * @return histogram
+     */
+    public LatencyHistogram getRoundTripLatency() {
+        return roundTripLatency;
+    }
+
+    /**
+     * Time from a transport client accepting an envelope to the send completing, including retries.
+     * @return histogram
+     */
+    public LatencyHistogram getEndToEndLatency() {
+        return endToEndLatency;
     }
 }
\ No newline at end of file
@@ -19,25 +19,27 @@
 package org.imsglobal.caliper.statistics;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public class StatisticsMap extends ConcurrentHashMap<String, Statistic> {
 
     private static final long serialVersionUID = -8837006750327885446L;
 
-    public Statistic ensure(String key) {
-        if (this.containsKey(key)) return this.get(key);
+    private static final Function<String, Statistic> CREATE = new Function<String, Statistic>() {
+        @Override
+        public Statistic apply(String key) {
+            return new Statistic();
+        }
+    };
 
-        Statistic statistic = new Statistic();
-        this.put(key, statistic);
-        return statistic;
+    public Statistic ensure(String key) {
+        // Plain get first: the common case of an existing key then takes no bin lock
+        Statistic statistic = this.get(key);
+        return (statistic != null) ? statistic : this.computeIfAbsent(key, CREATE);
     }
 
     public void update(String operation, double val) {
-        if (!this.containsKey(operation)) {
-            this.putIfAbsent(operation, new Statistic());
-        }
-
-        this.get(operation).update(val);
+        ensure(operation).update(val);
     }
 
     @Override
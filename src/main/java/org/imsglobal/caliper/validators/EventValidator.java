@@ -27,10 +27,29 @@ import org.imsglobal.caliper.events.CaliperEvent;
 import org.imsglobal.caliper.events.EventType;
 import org.imsglobal.caliper.events.SupportedActions;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
 import static com.google.common.base.Preconditions.checkArgument;
 
 public class EventValidator {
 
+    /**
+     * Supported actions per event class, read from the SupportedActions annotation on first use.
+     */
+    private static final ClassValue<Set<Action>> SUPPORTED_ACTIONS = new ClassValue<Set<Action>>() {
+        @Override
+        protected Set<Action> computeValue(Class<?> clazz) {
+            SupportedActions actions = clazz.getAnnotation(SupportedActions.class);
+            checkArgument(actions != null, "supported actions must be specified");
+
+            Set<Action> supported = EnumSet.noneOf(Action.class);
+            supported.addAll(Arrays.asList(actions.value()));
+            return supported;
+        }
+    };
+
     /**
      * Constructor
      */
@@ -71,24 +90,13 @@ public class EventValidator {
     }
 
     /**
-     * Check action
+     * Check action.  The supported actions of each event class are resolved once and cached.
      * @param action
      * @throws IllegalArgumentException
      */
     public static void checkAction(Action action, Class<? extends CaliperEvent> clazz) throws IllegalArgumentException {
         checkArgument(action != null, "an action must be specified");
-
-        SupportedActions actions = clazz.getAnnotation(SupportedActions.class);
-        checkArgument(actions != null, "supported actions must be specified");
-
-        boolean isSupported = false;
-        for (Action supportedAction : actions.value()) {
-            if (action.value().equals(supportedAction.value())) {
-                isSupported = true;
-                break;
-            }
-        }
-        checkArgument(isSupported, "%s action is not supported", action);
+        checkArgument(SUPPORTED_ACTIONS.get(clazz).contains(action), "%s action is not supported", action);
     }
 
     /**
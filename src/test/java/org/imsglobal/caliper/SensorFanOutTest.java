@@ -0,0 +1,217 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper;
+
+import org.imsglobal.caliper.clients.AsyncClientOptions;
+import org.imsglobal.caliper.clients.BufferingClient;
+import org.imsglobal.caliper.clients.StubClient;
+import org.imsglobal.caliper.metrics.PrometheusExporter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.imsglobal.caliper.TestUtils.envelope;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class SensorFanOutTest {
+    private GatedClient fast;
+    private GatedClient slow;
+    private GatedClient failing;
+    private Sensor sensor;
+
+    @Before
+    public void setUp() throws Exception {
+        fast = new GatedClient("urn:test:fast");
+        slow = new GatedClient("urn:test:slow");
+        slow.gate = new CountDownLatch(1);
+        failing = new GatedClient("urn:test:failing");
+        failing.fail = true;
+    }
+
+    @Test
+    public void slowClientDoesNotDelayOthers() throws Exception {
+        sensor = Sensor.create("https://example.edu/sensors/1", AsyncClientOptions.builder().build());
+        sensor.registerClient(fast);
+        sensor.registerClient(slow);
+
+        CompletableFuture<Void> delivered = sensor.sendAsync(envelope());
+
+        assertTrue(fast.delivered.await(5, TimeUnit.SECONDS));
+        assertFalse(delivered.isDone());
+
+        slow.gate.countDown();
+        delivered.get(5, TimeUnit.SECONDS);
+        assertEquals(1, sensor.getStatistics().get(slow.getId()).getSuccessful().getCount());
+    }
+
+    @Test
+    public void failingClientDoesNotAbortParallelDelivery() throws Exception {
+        sensor = Sensor.create("https://example.edu/sensors/1", AsyncClientOptions.builder().build());
+        sensor.registerClient(failing);
+        sensor.registerClient(fast);
+
+        assertSendFails();
+        assertEquals(1, sensor.getStatistics().get(fast.getId()).getSuccessful().getCount());
+        assertEquals(1, sensor.getStatistics().get(failing.getId()).getFailed().getCount());
+        assertEquals(1, sensor.getStatistics().get(failing.getId()).getQueueLatency().getCount());
+    }
+
+    @Test
+    public void failingClientDoesNotAbortSerialDelivery() throws Exception {
+        sensor = Sensor.create("https://example.edu/sensors/1");
+        sensor.registerClient(failing);
+        sensor.registerClient(fast);
+
+        assertSendFails();
+        assertEquals(1, sensor.getStatistics().get(fast.getId()).getSuccessful().getCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void sendWithoutClientsFails() throws Exception {
+        sensor = Sensor.create("https://example.edu/sensors/1", AsyncClientOptions.builder().build());
+        sensor.send(envelope());
+    }
+
+    @Test
+    public void clientsMayBeRegisteredWhileSending() throws Exception {
+        sensor = Sensor.create("https://example.edu/sensors/1", AsyncClientOptions.builder().build());
+        sensor.registerClient(fast);
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService senders = Executors.newFixedThreadPool(4);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(senders.submit(new Runnable() {
+                @Override
+                public void run() {
+                    while (running.get()) {
+                        sensor.send(envelope());
+                    }
+                }
+            }));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            sensor.registerClient(new GatedClient("urn:test:transient:" + i));
+            sensor.unregisterClient("urn:test:transient:" + (i - 1));
+        }
+        running.set(false);
+        for (Future<?> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+        senders.shutdown();
+
+        assertEquals(2, sensor.getClients().size());
+        assertTrue(sensor.getClients().containsKey("urn:test:transient:49"));
+        assertTrue(sensor.getStatistics().get(fast.getId()).getSuccessful().getCount() > 0);
+    }
+
+    @Test
+    public void dispatcherBacklogIsMonitored() throws Exception {
+        sensor = Sensor.create("https://example.edu/sensors/1", AsyncClientOptions.builder().build());
+        sensor.registerClient(slow);
+        for (int i = 0; i < 3; i++) {
+            sensor.sendAsync(envelope());
+        }
+
+        BufferingClient monitored = (BufferingClient) sensor.getMonitoredClients().get(slow.getId());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (monitored.getBacklog() != 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+
+        assertEquals(2, monitored.getBacklog());
+        assertSame(slow.getStatistics(), monitored.getStatistics());
+        assertTrue(PrometheusExporter.create(sensor).scrape().contains("caliper_client_backlog{sensor=\"https://example.edu/sensors/1\",client=\"urn:test:slow\"} 2\n"));
+    }
+
+    @Test
+    public void serialSensorMonitorsRegisteredClients() throws Exception {
+        sensor = Sensor.create("https://example.edu/sensors/1");
+        sensor.registerClient(fast);
+
+        assertSame(fast, sensor.getMonitoredClients().get(fast.getId()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void registeredClientsAreASnapshot() throws Exception {
+        sensor = Sensor.create("https://example.edu/sensors/1");
+        sensor.registerClient(fast);
+
+        sensor.getClients().remove(fast.getId());
+    }
+
+    @After
+    public void teardown() {
+        slow.gate.countDown();
+        sensor.close();
+    }
+
+    private void assertSendFails() {
+        try {
+            sensor.send(envelope());
+            fail("Expected send to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("send failed", e.getMessage());
+        }
+    }
+
+    /**
+     * Client stub that can be held at a gate or made to fail.
+     */
+    private static class GatedClient extends StubClient {
+        private final CountDownLatch delivered = new CountDownLatch(1);
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private volatile boolean fail;
+
+        private GatedClient(String id) {
+            super(id);
+        }
+
+        public void send(Envelope envelope) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (fail) {
+                statistics.updateFailed(1);
+                throw new IllegalStateException("send failed");
+            }
+            statistics.updateSuccessful(1);
+            delivered.countDown();
+        }
+    }
+}
@@ -1,28 +1,69 @@
 package org.imsglobal.caliper;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
-import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
-import com.fasterxml.jackson.datatype.joda.JodaModule;
-import org.imsglobal.caliper.databind.JxnCoercibleSimpleModule;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.databind.JxnMapper;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class TestUtils {
+    public static final String SENSOR = "https://example.edu/sensors/1";
 
     /**
      * Create Caliper-friendly ObjectMapper.
      * @return ObjectMapper
      */
     public static ObjectMapper createCaliperObjectMapper() {
-        SimpleFilterProvider provider = new SimpleFilterProvider()
-            .setFailOnUnknownId(true);
+        return JxnMapper.createObjectMapper();
+    }
+
+    /**
+     * Get the identifier of a numbered sensor.
+     * @param i
+     * @return sensor id
+     */
+    public static String sensor(int i) {
+        return "https://example.edu/sensors/" + i;
+    }
 
-        ObjectMapper mapper = new ObjectMapper()
-            .setDateFormat(new ISO8601DateFormat())
-            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY)
-            .setFilterProvider(provider)
-            .registerModules(new JodaModule(), new JxnCoercibleSimpleModule());
+    /**
+     * Create a Person identified by number.
+     * @param i
+     * @return Person
+     */
+    public static Person person(int i) {
+        return Person.builder().id("https://example.edu/users/" + i).build();
+    }
 
-        return mapper;
+    /**
+     * Create an empty Envelope from the default sensor.
+     * @return Envelope
+     */
+    public static Envelope envelope() {
+        return new Envelope(SENSOR, DateTime.now(), Config.DATA_VERSION, new ArrayList<>());
+    }
+
+    /**
+     * Create an Envelope from the default sensor that carries a single numbered Person.
+     * @param i
+     * @return Envelope
+     */
+    public static Envelope envelope(int i) {
+        return envelope(SENSOR, person(i));
+    }
+
+    /**
+     * Create an Envelope that carries a single data item.
+     * @param sensorId
+     * @param item
+     * @return Envelope
+     */
+    public static Envelope envelope(String sensorId, Object item) {
+        List<Object> data = new ArrayList<>();
+        data.add(item);
+        return new Envelope(sensorId, DateTime.now(), Config.DATA_VERSION, data);
     }
-}
\ No newline at end of file
+}
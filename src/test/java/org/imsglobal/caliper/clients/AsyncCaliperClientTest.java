@@ -0,0 +1,226 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.BackpressurePolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.imsglobal.caliper.TestUtils.envelope;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class AsyncCaliperClientTest {
+    private GatedClient gated;
+    private AsyncCaliperClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        gated = new GatedClient("urn:test:client");
+    }
+
+    @Test
+    public void sendAsyncCompletesOnceDelegateHasSent() throws Exception {
+        client = create(BackpressurePolicy.BLOCK);
+        gated.open();
+
+        client.sendAsync(envelope()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, gated.sent.size());
+        assertEquals(1, client.getStatistics().getMeasures().getCount());
+    }
+
+    @Test
+    public void dropNewestRejectsEnvelopeWhenQueueIsFull() throws Exception {
+        client = create(BackpressurePolicy.DROP_NEWEST);
+
+        client.sendAsync(envelope());
+        gated.awaitInFlight();
+        CompletableFuture<Void> queued = client.sendAsync(envelope());
+        CompletableFuture<Void> dropped = client.sendAsync(envelope());
+
+        assertTrue(dropped.isCompletedExceptionally());
+        assertEquals(1, client.getStatistics().getDropped().getCount());
+
+        gated.open();
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void dropOldestEvictsQueuedEnvelope() throws Exception {
+        client = create(BackpressurePolicy.DROP_OLDEST);
+
+        client.sendAsync(envelope());
+        gated.awaitInFlight();
+        CompletableFuture<Void> evicted = client.sendAsync(envelope());
+        Envelope newest = envelope();
+        CompletableFuture<Void> queued = client.sendAsync(newest);
+
+        assertTrue(evicted.isCompletedExceptionally());
+
+        gated.open();
+        queued.get(5, TimeUnit.SECONDS);
+        assertSame(newest, gated.sent.get(gated.sent.size() - 1));
+    }
+
+    @Test
+    public void callerRunsSendsOnCallingThread() throws Exception {
+        client = create(BackpressurePolicy.CALLER_RUNS);
+
+        client.sendAsync(envelope());
+        gated.awaitInFlight();
+        client.sendAsync(envelope());
+
+        gated.callerMayPass = Thread.currentThread();
+        CompletableFuture<Void> overflow = client.sendAsync(envelope());
+
+        assertTrue(overflow.isDone());
+        gated.open();
+    }
+
+    @Test
+    public void delegateFailureCompletesFutureExceptionally() throws Exception {
+        client = create(BackpressurePolicy.BLOCK);
+        gated.fail = true;
+        gated.open();
+
+        try {
+            client.sendAsync(envelope()).get(5, TimeUnit.SECONDS);
+            fail("Expected send to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void delegateErrorCompletesFutureExceptionally() throws Exception {
+        client = create(BackpressurePolicy.BLOCK);
+        gated.error = true;
+        gated.open();
+
+        try {
+            client.sendAsync(envelope()).get(5, TimeUnit.SECONDS);
+            fail("Expected send to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof AssertionError);
+        }
+    }
+
+    @Test
+    public void boundsInFlightSendsToAsyncDelegate() throws Exception {
+        PendingClient pending = new PendingClient("urn:test:client");
+        client = AsyncCaliperClient.create(pending, AsyncClientOptions.builder().queueCapacity(1).workers(1).build());
+
+        CompletableFuture<Void> first = client.sendAsync(envelope());
+        awaitSize(pending.futures, 1);
+        CompletableFuture<Void> second = client.sendAsync(envelope());
+        while (client.getQueueDepth() > 0) {
+            Thread.sleep(5L);
+        }
+        Thread.sleep(50L);
+        assertEquals(1, pending.futures.size());
+
+        pending.futures.get(0).complete(null);
+        first.get(5, TimeUnit.SECONDS);
+        awaitSize(pending.futures, 2);
+        pending.futures.get(1).complete(null);
+        second.get(5, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void teardown() {
+        gated.open();
+        client.close();
+    }
+
+    private AsyncCaliperClient create(BackpressurePolicy policy) {
+        AsyncClientOptions opts = AsyncClientOptions.builder()
+            .queueCapacity(1)
+            .workers(1)
+            .backpressurePolicy(policy)
+            .build();
+        return AsyncCaliperClient.create(gated, opts);
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertEquals(size, list.size());
+    }
+
+    /**
+     * Client stub that holds worker threads until the gate is opened.
+     */
+    private static class GatedClient extends StubClient {
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final CountDownLatch inFlight = new CountDownLatch(1);
+        private final List<Envelope> sent = new ArrayList<>();
+        private volatile Thread callerMayPass;
+        private volatile boolean fail;
+        private volatile boolean error;
+
+        private GatedClient(String id) {
+            super(id);
+        }
+
+        public void send(Envelope envelope) {
+            if (Thread.currentThread() != callerMayPass) {
+                inFlight.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            statistics.updateMeasures(1);
+            if (fail) {
+                throw new IllegalStateException("send failed");
+            }
+            if (error) {
+                throw new AssertionError("send failed");
+            }
+            synchronized (sent) {
+                sent.add(envelope);
+            }
+        }
+
+        private void open() {
+            gate.countDown();
+        }
+
+        private void awaitInFlight() throws InterruptedException {
+            inFlight.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
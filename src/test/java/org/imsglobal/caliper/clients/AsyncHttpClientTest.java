@@ -0,0 +1,93 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.config.Transport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.imsglobal.caliper.TestUtils.envelope;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class AsyncHttpClientTest {
+    private StubEndpoint endpoint;
+    private AsyncHttpClient client;
+
+    private static final int SENDS = 200;
+
+    @Before
+    public void setUp() throws Exception {
+        endpoint = new StubEndpoint(32).latency(20L);
+
+        HttpClientOptions opts = HttpClientOptions.builder()
+            .apiKey("faux_key")
+            .host(endpoint.getHost())
+            .maxTotal(32)
+            .maxPerRoute(32)
+            .transport(Transport.NON_BLOCKING)
+            .build();
+        client = (AsyncHttpClient) HttpClientFactory.create("urn:test:client", opts);
+    }
+
+    @Test
+    public void manyEnvelopesInFlightFromOneThread() throws Exception {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < SENDS; i++) {
+            futures.add(client.sendAsync(envelope(i)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(SENDS, endpoint.getReceived());
+        assertEquals(SENDS, client.getStatistics().getSuccessful().getCount());
+
+        // Sent serially, 200 round trips of 20ms would take at least four seconds.
+        assertTrue("Expected concurrent round trips but took " + elapsed + "ms", elapsed < 4000L);
+    }
+
+    @Test
+    public void errorStatusCompletesFutureExceptionally() throws Exception {
+        endpoint.status(500);
+
+        try {
+            client.sendAsync(envelope(1)).get(30, TimeUnit.SECONDS);
+            fail("Expected send to fail");
+        } catch (ExecutionException e) {
+            assertEquals(1, client.getStatistics().getFailed().getCount());
+        }
+    }
+
+    @After
+    public void teardown() throws Exception {
+        client.close();
+        endpoint.stop();
+    }
+}
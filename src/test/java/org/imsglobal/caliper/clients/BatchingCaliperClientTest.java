@@ -0,0 +1,201 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Config;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.imsglobal.caliper.TestUtils.SENSOR;
+import static org.imsglobal.caliper.TestUtils.envelope;
+import static org.imsglobal.caliper.TestUtils.person;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class BatchingCaliperClientTest {
+    private RecordingClient recorder;
+    private BatchingCaliperClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        recorder = new RecordingClient("urn:test:client");
+    }
+
+    @Test
+    public void flushesWhenMaxEventsIsReached() {
+        client = create(BatchingClientOptions.builder().maxEvents(3).maxLinger(60000L).build());
+
+        for (int i = 0; i < 7; i++) {
+            client.send(envelope(SENSOR, person(i)));
+        }
+
+        assertEquals(2, recorder.sent.size());
+        assertEquals(3, recorder.sent.get(0).getData().size());
+        assertEquals(3, recorder.sent.get(1).getData().size());
+        assertEquals(1, client.getBatchSize());
+    }
+
+    @Test
+    public void flushesWhenMaxBytesIsReached() {
+        client = create(BatchingClientOptions.builder().maxEvents(1000).maxBytes(100L).maxLinger(60000L).build());
+
+        for (int i = 0; i < 10; i++) {
+            client.send(envelope(SENSOR, person(i)));
+        }
+
+        assertTrue(recorder.sent.size() > 1);
+        for (Envelope batched : recorder.sent) {
+            assertTrue(batched.getData().size() < 10);
+        }
+    }
+
+    @Test
+    public void flushesWhenMaxLingerElapses() throws Exception {
+        client = create(BatchingClientOptions.builder().maxEvents(1000).maxLinger(50L).build());
+
+        client.send(envelope(SENSOR, person(1)));
+        client.send(envelope(SENSOR, person(2)));
+
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (recorder.sent.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+
+        assertEquals(1, recorder.sent.size());
+        assertEquals(2, recorder.sent.get(0).getData().size());
+    }
+
+    @Test
+    public void flushesWhenSensorChanges() {
+        client = create(BatchingClientOptions.builder().maxEvents(1000).maxLinger(60000L).build());
+
+        client.send(envelope(SENSOR, person(1)));
+        client.send(envelope("https://example.edu/sensors/2", person(2)));
+
+        assertEquals(1, recorder.sent.size());
+        assertEquals(SENSOR, recorder.sent.get(0).getSensorId());
+    }
+
+    @Test
+    public void closeFlushesPendingBatch() {
+        client = create(BatchingClientOptions.builder().maxEvents(1000).maxLinger(60000L).build());
+
+        client.send(envelope(SENSOR, person(1)));
+        client.close();
+
+        assertEquals(1, recorder.sent.size());
+    }
+
+    @Test
+    public void sendAfterCloseIsNotBatched() {
+        client = create(BatchingClientOptions.builder().maxEvents(1000).maxLinger(60000L).build());
+        client.close();
+
+        client.send(envelope(SENSOR, person(1)));
+
+        assertEquals(1, recorder.sent.size());
+        assertEquals(0, client.getBatchSize());
+    }
+
+    @Test
+    public void closeGivesUpOnBlockedFlushAfterTimeout() throws Exception {
+        client = create(BatchingClientOptions.builder().maxEvents(1000).maxLinger(10L).shutdownTimeout(50L).build());
+        recorder.gate = new CountDownLatch(1);
+
+        try {
+            client.send(envelope(SENSOR, person(1)));
+            while (client.getBatchSize() > 0) {
+                Thread.sleep(5L);
+            }
+
+            long start = System.currentTimeMillis();
+            client.close();
+            assertTrue(System.currentTimeMillis() - start < 5000L);
+        } finally {
+            recorder.gate.countDown();
+        }
+    }
+
+    @Test
+    public void sendsRemainingBatchesWhenOneFails() {
+        client = create(BatchingClientOptions.builder().maxEvents(1).maxLinger(60000L).build());
+        recorder.failures.set(1);
+
+        List<Object> data = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            data.add(person(i));
+        }
+        try {
+            client.send(new Envelope(SENSOR, DateTime.now(), Config.DATA_VERSION, data));
+            fail("Expected send to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("send failed", e.getMessage());
+        }
+
+        assertEquals(2, recorder.sent.size());
+    }
+
+    @After
+    public void teardown() {
+        client.close();
+    }
+
+    private BatchingCaliperClient create(BatchingClientOptions opts) {
+        return BatchingCaliperClient.create(recorder, opts);
+    }
+
+    /**
+     * Client stub that records each envelope it is asked to send.
+     */
+    private static class RecordingClient extends StubClient {
+        private final List<Envelope> sent = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile CountDownLatch gate;
+
+        private RecordingClient(String id) {
+            super(id);
+        }
+
+        public void send(Envelope envelope) {
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("send failed");
+            }
+            sent.add(envelope);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.Envelope;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.imsglobal.caliper.TestUtils.envelope;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class CircuitBreakerCaliperClientTest {
+    private OutageClient endpoint;
+    private OutageClient fallback;
+
+    @Before
+    public void setUp() throws Exception {
+        endpoint = new OutageClient("urn:test:endpoint");
+        fallback = new OutageClient("urn:test:fallback");
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailuresAndRejects() throws Exception {
+        CircuitBreakerCaliperClient client = CircuitBreakerCaliperClient.create(endpoint, options(60000L));
+        endpoint.down = true;
+
+        for (int i = 0; i < 3; i++) {
+            sendQuietly(client);
+        }
+        assertEquals(CircuitBreakerCaliperClient.State.OPEN, client.getState());
+        assertEquals(1, client.getStatistics().getCircuitOpened().getCount());
+
+        try {
+            client.send(envelope());
+            fail("Expected envelope to be rejected");
+        } catch (CircuitOpenException e) {
+            assertTrue(e.isRetryable());
+            assertEquals(3, endpoint.attempts);
+            assertEquals(1, client.getStatistics().getShortCircuited().getCount());
+        }
+    }
+
+    @Test
+    public void divertsToFallbackWhileOpen() throws Exception {
+        CircuitBreakerCaliperClient client = CircuitBreakerCaliperClient.create(endpoint, fallback, options(60000L));
+        endpoint.down = true;
+
+        for (int i = 0; i < 5; i++) {
+            sendQuietly(client);
+        }
+
+        assertEquals(3, endpoint.attempts);
+        assertEquals(2, fallback.attempts);
+    }
+
+    @Test
+    public void trialSendClosesCircuitOnceEndpointRecovers() throws Exception {
+        CircuitBreakerCaliperClient client = CircuitBreakerCaliperClient.create(endpoint, options(50L));
+        endpoint.down = true;
+        for (int i = 0; i < 3; i++) {
+            sendQuietly(client);
+        }
+
+        Thread.sleep(100L);
+        endpoint.down = false;
+        client.send(envelope());
+
+        assertEquals(CircuitBreakerCaliperClient.State.CLOSED, client.getState());
+        assertEquals(4, endpoint.attempts);
+    }
+
+    @Test
+    public void failedTrialSendReopensCircuit() throws Exception {
+        CircuitBreakerCaliperClient client = CircuitBreakerCaliperClient.create(endpoint, options(50L));
+        endpoint.down = true;
+        for (int i = 0; i < 3; i++) {
+            sendQuietly(client);
+        }
+
+        Thread.sleep(100L);
+        sendQuietly(client);
+
+        assertEquals(CircuitBreakerCaliperClient.State.OPEN, client.getState());
+        assertEquals(2, client.getStatistics().getCircuitOpened().getCount());
+    }
+
+    @Test
+    public void permanentFailuresDoNotOpenCircuit() throws Exception {
+        CircuitBreakerCaliperClient client = CircuitBreakerCaliperClient.create(endpoint, options(60000L));
+        endpoint.rejection = new CaliperSendException(400);
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                client.send(envelope());
+                fail("Expected envelope to be rejected");
+            } catch (CaliperSendException e) {
+                assertEquals(400, e.getStatusCode());
+            }
+        }
+
+        assertEquals(CircuitBreakerCaliperClient.State.CLOSED, client.getState());
+        assertEquals(0, client.getStatistics().getCircuitOpened().getCount());
+    }
+
+    @Test
+    public void permanentFailureOfTrialSendClosesCircuit() throws Exception {
+        CircuitBreakerCaliperClient client = CircuitBreakerCaliperClient.create(endpoint, options(50L));
+        endpoint.down = true;
+        for (int i = 0; i < 3; i++) {
+            sendQuietly(client);
+        }
+
+        Thread.sleep(100L);
+        endpoint.down = false;
+        endpoint.rejection = new CaliperSendException(422);
+        try {
+            client.send(envelope());
+            fail("Expected envelope to be rejected");
+        } catch (CaliperSendException e) {
+            assertEquals(422, e.getStatusCode());
+        }
+
+        assertEquals(CircuitBreakerCaliperClient.State.CLOSED, client.getState());
+    }
+
+    @Test
+    public void staleSuccessDoesNotCloseHalfOpenCircuit() throws Exception {
+        PendingClient pending = new PendingClient("urn:test:pending");
+        CircuitBreakerCaliperClient client = CircuitBreakerCaliperClient.create(pending, options(50L));
+        for (int i = 0; i < 4; i++) {
+            client.send(envelope());
+        }
+
+        for (int i = 1; i < 4; i++) {
+            pending.futures.get(i).completeExceptionally(new CaliperSendException(503));
+        }
+        assertEquals(CircuitBreakerCaliperClient.State.OPEN, client.getState());
+
+        Thread.sleep(100L);
+        client.send(envelope());
+        assertEquals(CircuitBreakerCaliperClient.State.HALF_OPEN, client.getState());
+
+        pending.futures.get(0).complete(null);
+        assertEquals(CircuitBreakerCaliperClient.State.HALF_OPEN, client.getState());
+
+        pending.futures.get(4).complete(null);
+        assertEquals(CircuitBreakerCaliperClient.State.CLOSED, client.getState());
+    }
+
+    private static void sendQuietly(CaliperClient client) {
+        try {
+            client.send(envelope());
+        } catch (CaliperSendException e) {
+            assertEquals(503, e.getStatusCode());
+        }
+    }
+
+    private static CircuitBreakerClientOptions options(long openDuration) {
+        return CircuitBreakerClientOptions.builder()
+            .failureThreshold(3)
+            .openDuration(openDuration)
+            .build();
+    }
+
+    /**
+     * Client stub that counts send attempts and fails while the endpoint is down.
+     */
+    private static class OutageClient extends StubClient {
+        private volatile boolean down;
+        private volatile CaliperSendException rejection;
+        private volatile int attempts;
+
+        private OutageClient(String id) {
+            super(id);
+        }
+
+        public void send(Envelope envelope) {
+            attempts++;
+            statistics.updateMeasures(1);
+            if (down) {
+                statistics.updateFailed(1);
+                throw new CaliperSendException(503);
+            }
+            if (rejection != null) {
+                statistics.updateFailed(1);
+                throw rejection;
+            }
+            statistics.updateSuccessful(1);
+        }
+    }
+}
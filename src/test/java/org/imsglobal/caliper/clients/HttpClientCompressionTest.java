@@ -0,0 +1,146 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.google.common.io.ByteStreams;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Compression;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.databind.JxnMapper;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class HttpClientCompressionTest {
+    private StubEndpoint endpoint;
+    private Envelope envelope;
+    private byte[] json;
+
+    @Before
+    public void setUp() throws Exception {
+        endpoint = new StubEndpoint(1);
+
+        List<Object> data = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            data.add(Person.builder().id("https://example.edu/users/" + i).build());
+        }
+        envelope = new Envelope("https://example.edu/sensors/1", DateTime.now(), Config.DATA_VERSION, data);
+        json = JxnMapper.getDefault().writeValueAsBytes(envelope);
+    }
+
+    @Test
+    public void gzipAboveThreshold() throws Exception {
+        send(Compression.GZIP, 0);
+
+        assertEquals("gzip", endpoint.getLastContentEncoding());
+        assertTrue(endpoint.getLastBody().length < json.length);
+        byte[] body = ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(endpoint.getLastBody())));
+        assertArrayEquals(json, body);
+    }
+
+    @Test
+    public void deflateAboveThreshold() throws Exception {
+        send(Compression.DEFLATE, 0);
+
+        assertEquals("deflate", endpoint.getLastContentEncoding());
+        byte[] body = ByteStreams.toByteArray(new InflaterInputStream(new ByteArrayInputStream(endpoint.getLastBody())));
+        assertArrayEquals(json, body);
+    }
+
+    @Test
+    public void gzipAtThreshold() throws Exception {
+        send(Compression.GZIP, json.length);
+
+        assertEquals("gzip", endpoint.getLastContentEncoding());
+        byte[] body = ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(endpoint.getLastBody())));
+        assertArrayEquals(json, body);
+    }
+
+    @Test
+    public void gzipSerializedEnvelope() throws Exception {
+        envelope = SerializedEnvelope.of(envelope);
+        send(Compression.GZIP, json.length);
+
+        assertEquals("gzip", endpoint.getLastContentEncoding());
+        byte[] body = ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(endpoint.getLastBody())));
+        assertArrayEquals(json, body);
+    }
+
+    @Test
+    public void uncompressedBelowThreshold() throws Exception {
+        send(Compression.GZIP, json.length + 1);
+
+        assertNull(endpoint.getLastContentEncoding());
+        assertArrayEquals(json, endpoint.getLastBody());
+    }
+
+    @Test
+    public void uncompressedSerializedEnvelopeBelowThreshold() throws Exception {
+        envelope = SerializedEnvelope.of(envelope);
+        send(Compression.DEFLATE, json.length + 1);
+
+        assertNull(endpoint.getLastContentEncoding());
+        assertArrayEquals(json, endpoint.getLastBody());
+    }
+
+    @Test
+    public void uncompressedByDefault() throws Exception {
+        send(null, 0);
+
+        assertNull(endpoint.getLastContentEncoding());
+        assertArrayEquals(json, endpoint.getLastBody());
+    }
+
+    @After
+    public void teardown() throws Exception {
+        endpoint.stop();
+    }
+
+    private void send(Compression compression, int threshold) throws Exception {
+        HttpClientOptions opts = HttpClientOptions.builder()
+            .apiKey("faux_key")
+            .host(endpoint.getHost())
+            .compression(compression)
+            .compressionThreshold(threshold)
+            .build();
+
+        HttpClient client = HttpClient.create("urn:test:client", opts);
+        try {
+            client.send(envelope);
+        } finally {
+            client.close();
+        }
+        assertEquals(1, client.getStatistics().getSuccessful().getCount());
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.imsglobal.caliper.TestUtils.envelope;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives a single HttpClient from many threads against a local stub endpoint with a fixed response
+ * latency, and checks how many requests the endpoint sees at once.  The client must lease pooled
+ * connections concurrently, but never more than the configured per-route limit.
+ */
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class HttpClientConcurrencyTest {
+    private StubEndpoint endpoint;
+    private HttpClient client;
+
+    private static final long LATENCY = 50L;
+    private static final int THREADS = 8;
+    private static final int SENDS_PER_THREAD = 10;
+
+    @Before
+    public void setUp() throws Exception {
+        endpoint = new StubEndpoint(16).latency(LATENCY);
+    }
+
+    @Test
+    public void sendsConcurrentlyUpToThePoolLimit() throws Exception {
+        client = create(4);
+
+        send(THREADS);
+
+        int expected = THREADS * SENDS_PER_THREAD;
+        assertEquals(expected, endpoint.getReceived());
+        assertEquals(expected, client.getStatistics().getSuccessful().getCount());
+        assertEquals(0, client.getStatistics().getFailed().getCount());
+        assertTrue("Expected concurrent requests but saw " + endpoint.getMaxInFlight(), endpoint.getMaxInFlight() > 1);
+        assertTrue("Pool limit exceeded: " + endpoint.getMaxInFlight(), endpoint.getMaxInFlight() <= 4);
+    }
+
+    @Test
+    public void honorsSingleConnectionPool() throws Exception {
+        client = create(1);
+
+        send(THREADS);
+
+        assertEquals(THREADS * SENDS_PER_THREAD, endpoint.getReceived());
+        assertEquals(1, endpoint.getMaxInFlight());
+    }
+
+    @After
+    public void teardown() throws Exception {
+        client.close();
+        endpoint.stop();
+    }
+
+    private HttpClient create(int maxPerRoute) {
+        HttpClientOptions opts = HttpClientOptions.builder()
+            .apiKey("faux_key")
+            .host(endpoint.getHost())
+            .maxPerRoute(maxPerRoute)
+            .connectionRequestTimeout(60000)
+            .build();
+        return HttpClient.create("urn:test:client", opts);
+    }
+
+    /**
+     * Send from the given number of threads and wait for all of them to finish.
+     * @param threads
+     */
+    private void send(int threads) throws Exception {
+        ExecutorService senders = Executors.newFixedThreadPool(threads);
+        final CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            senders.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < SENDS_PER_THREAD; i++) {
+                        client.send(envelope(i));
+                    }
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        senders.shutdown();
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.imsglobal.caliper.clients;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.databind.JxnMapper;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class HttpClientDataFormatTest {
+    private StubEndpoint endpoint;
+    private Envelope envelope;
+    private JsonNode expected;
+
+    @Before
+    public void setUp() throws Exception {
+        endpoint = new StubEndpoint(1);
+
+        List<Object> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            data.add(Person.builder().id("https://example.edu/users/" + i).build());
+        }
+        envelope = new Envelope("https://example.edu/sensors/1", DateTime.now(), Config.DATA_VERSION, data);
+        JxnMapper json = JxnMapper.getDefault();
+        expected = json.getObjectMapper().readTree(json.writeValueAsBytes(envelope));
+    }
+
+    @Test
+    public void smileRoundTrips() throws Exception {
+        send(DataFormat.CALIPER_SMILE);
+
+        assertEquals("application/x-jackson-smile", endpoint.getLastContentType());
+        assertEquals(expected, read(DataFormat.CALIPER_SMILE));
+    }
+
+    @Test
+    public void cborRoundTrips() throws Exception {
+        send(DataFormat.CALIPER_CBOR);
+
+        assertEquals("application/cbor", endpoint.getLastContentType());
+        assertEquals(expected, read(DataFormat.CALIPER_CBOR));
+    }
+
+    @Test
+    public void binaryFormatsAreSmaller() throws Exception {
+        int json = JxnMapper.getDefault().writeValueAsBytes(envelope).length;
+
+        assertTrue(JxnMapper.forFormat(DataFormat.CALIPER_SMILE).writeValueAsBytes(envelope).length < json);
+        assertTrue(JxnMapper.forFormat(DataFormat.CALIPER_CBOR).writeValueAsBytes(envelope).length < json);
+    }
+
+    @Test
+    public void jsonByDefault() throws Exception {
+        send(null);
+
+        assertEquals("application/json", endpoint.getLastContentType());
+        assertEquals(expected, read(DataFormat.CALIPER_JSONLD));
+    }
+
+    @After
+    public void teardown() throws Exception {
+        endpoint.stop();
+    }
+
+    private JsonNode read(DataFormat format) throws Exception {
+        return JxnMapper.forFormat(format).getObjectMapper().readTree(endpoint.getLastBody());
+    }
+
+    private void send(DataFormat format) throws Exception {
+        HttpClientOptions opts = HttpClientOptions.builder()
+            .apiKey("faux_key")
+            .host(endpoint.getHost())
+            .dataFormat(format)
+            .build();
+
+        HttpClient client = HttpClient.create("urn:test:client", opts);
+        try {
+            client.send(envelope);
+        } finally {
+            client.close();
+        }
+        assertEquals(1, client.getStatistics().getSuccessful().getCount());
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Config;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.imsglobal.caliper.TestUtils.envelope;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class HttpClientRetryTest {
+    private StubEndpoint endpoint;
+    private HttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        endpoint = new StubEndpoint(1);
+    }
+
+    @Test
+    public void retriesServerErrorsUntilSuccess() throws Exception {
+        endpoint.failFirst(2, 503, null);
+        client = create(3, 5000L);
+
+        client.send(envelope());
+
+        assertEquals(3, endpoint.getReceived());
+        assertEquals(1, client.getStatistics().getSuccessful().getCount());
+        assertEquals(0, client.getStatistics().getFailed().getCount());
+        assertEquals(2, client.getStatistics().getRetried().getCount());
+        assertEquals(3, client.getStatistics().getRoundTripLatency().getCount());
+        assertEquals(1, client.getStatistics().getEndToEndLatency().getCount());
+    }
+
+    @Test
+    public void failsOnceRetriesAreExhausted() throws Exception {
+        endpoint.failFirst(10, 500, null);
+        client = create(2, 5000L);
+
+        try {
+            client.send(envelope());
+            fail("Expected send to fail");
+        } catch (CaliperSendException e) {
+            assertEquals(500, e.getStatusCode());
+            assertTrue(e.isRetryable());
+            assertEquals(3, endpoint.getReceived());
+            assertEquals(1, client.getStatistics().getFailed().getCount());
+        }
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() throws Exception {
+        endpoint.failFirst(1, 400, null);
+        client = create(3, 5000L);
+
+        try {
+            client.send(envelope());
+            fail("Expected send to fail");
+        } catch (CaliperSendException e) {
+            assertEquals(400, e.getStatusCode());
+            assertFalse(e.isRetryable());
+            assertEquals(1, endpoint.getReceived());
+        }
+    }
+
+    @Test
+    public void surfacesIOErrors() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        client = create(0, 5000L, "http://127.0.0.1:" + port + "/");
+
+        try {
+            client.send(envelope());
+            fail("Expected send to fail");
+        } catch (CaliperSendException e) {
+            assertEquals(-1, e.getStatusCode());
+            assertTrue(e.isRetryable());
+            assertEquals(1, client.getStatistics().getFailed().getCount());
+        }
+    }
+
+    @Test
+    public void doesNotRetrySerializationFailures() throws Exception {
+        client = create(3, 5000L);
+        List<Object> data = new ArrayList<>();
+        data.add(new Unserializable());
+
+        try {
+            client.send(new Envelope("https://example.edu/sensors/1", DateTime.now(), Config.DATA_VERSION, data));
+            fail("Expected send to fail");
+        } catch (CaliperSendException e) {
+            assertEquals(-1, e.getStatusCode());
+            assertFalse(e.isRetryable());
+            assertEquals(0, client.getStatistics().getRetried().getCount());
+            assertEquals(1, client.getStatistics().getFailed().getCount());
+        }
+    }
+
+    @Test
+    public void honorsRetryAfter() throws Exception {
+        endpoint.failFirst(1, 429, "1");
+        client = create(1, 5000L);
+
+        long start = System.currentTimeMillis();
+        client.send(envelope());
+
+        assertTrue(System.currentTimeMillis() - start >= 1000L);
+        assertEquals(1, client.getStatistics().getSuccessful().getCount());
+    }
+
+    @After
+    public void teardown() throws Exception {
+        client.close();
+        endpoint.stop();
+    }
+
+    private HttpClient create(int maxRetries, long retryMaxDelay) {
+        return create(maxRetries, retryMaxDelay, endpoint.getHost());
+    }
+
+    private HttpClient create(int maxRetries, long retryMaxDelay, String host) {
+        HttpClientOptions opts = HttpClientOptions.builder()
+            .apiKey("faux_key")
+            .host(host)
+            .maxRetries(maxRetries)
+            .retryBaseDelay(10L)
+            .retryMaxDelay(retryMaxDelay)
+            .build();
+        return HttpClient.create("urn:test:client", opts);
+    }
+
+    /**
+     * Data item whose serialization always fails.
+     */
+    public static class Unserializable {
+        public String getValue() {
+            throw new IllegalStateException("value is unavailable");
+        }
+    }
+}
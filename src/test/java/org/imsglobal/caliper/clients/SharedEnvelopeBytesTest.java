@@ -0,0 +1,125 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.databind.JxnMapper;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class SharedEnvelopeBytesTest {
+    private StubEndpoint primary;
+    private StubEndpoint backup;
+    private Envelope envelope;
+
+    @Before
+    public void setUp() throws Exception {
+        primary = new StubEndpoint(1);
+        backup = new StubEndpoint(1);
+
+        List<Object> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            data.add(Person.builder().id("https://example.edu/users/" + i).build());
+        }
+        envelope = new Envelope("https://example.edu/sensors/1", DateTime.now(), Config.DATA_VERSION, data);
+    }
+
+    @Test
+    public void serializesOncePerMapper() throws Exception {
+        JxnMapper mapper = JxnMapper.getDefault();
+        SerializedEnvelope shared = SerializedEnvelope.of(envelope);
+        byte[] bytes = shared.getBytes(mapper);
+
+        assertSame(bytes, shared.getBytes(mapper));
+        assertNotSame(bytes, shared.getBytes(mapper.deduplicating()));
+        assertArrayEquals(mapper.writeValueAsBytes(envelope), bytes);
+        assertArrayEquals(mapper.writeValueAsBytes(envelope), mapper.writeValueAsBytes(shared));
+    }
+
+    @Test
+    public void clientsTransmitSharedBytes() throws Exception {
+        HttpClient first = create("urn:test:primary", primary);
+        HttpClient second = create("urn:test:backup", backup);
+        Sensor sensor = Sensor.create("https://example.edu/sensors/1");
+        sensor.registerClient(first);
+        sensor.registerClient(second);
+
+        try {
+            sensor.send(envelope);
+        } finally {
+            first.close();
+            second.close();
+        }
+
+        byte[] bytes = JxnMapper.forFormat(Config.DATA_FORMAT).writeValueAsBytes(envelope);
+        assertArrayEquals(bytes, primary.getLastBody());
+        assertArrayEquals(bytes, backup.getLastBody());
+        assertEquals(1, first.getStatistics().getSuccessful().getCount());
+        assertEquals(1, second.getStatistics().getSuccessful().getCount());
+    }
+
+    @Test
+    public void resentEnvelopeReflectsChanges() throws Exception {
+        HttpClient first = create("urn:test:primary", primary);
+        HttpClient second = create("urn:test:backup", backup);
+        Sensor sensor = Sensor.create("https://example.edu/sensors/1");
+        sensor.registerClient(first);
+        sensor.registerClient(second);
+
+        try {
+            sensor.send(envelope);
+            envelope.getData().add(Person.builder().id("https://example.edu/users/added").build());
+            sensor.send(envelope);
+        } finally {
+            first.close();
+            second.close();
+        }
+
+        assertArrayEquals(JxnMapper.forFormat(Config.DATA_FORMAT).writeValueAsBytes(envelope), primary.getLastBody());
+    }
+
+    @After
+    public void teardown() throws Exception {
+        primary.stop();
+        backup.stop();
+    }
+
+    private static HttpClient create(String id, StubEndpoint endpoint) {
+        HttpClientOptions opts = HttpClientOptions.builder()
+            .apiKey("faux_key")
+            .host(endpoint.getHost())
+            .build();
+        return HttpClient.create(id, opts);
+    }
+}
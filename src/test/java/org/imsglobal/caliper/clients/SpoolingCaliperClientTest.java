@@ -0,0 +1,261 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.FsyncPolicy;
+import org.imsglobal.caliper.config.Transport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.imsglobal.caliper.TestUtils.envelope;
+import static org.imsglobal.caliper.TestUtils.person;
+import static org.imsglobal.caliper.TestUtils.sensor;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class SpoolingCaliperClientTest {
+    private FlakyClient flaky;
+    private SpoolingCaliperClient client;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws Exception {
+        flaky = new FlakyClient("urn:test:client");
+    }
+
+    @Test
+    public void replaysInOrderOnceEndpointRecovers() throws Exception {
+        flaky.down = true;
+        client = create(64 * 1024, 1024 * 1024);
+
+        for (int i = 0; i < 20; i++) {
+            client.send(envelope(sensor(i), person(i)));
+        }
+        assertEquals(20, client.getPending());
+
+        flaky.down = false;
+        awaitDelivered(20);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("https://example.edu/sensors/" + i, flaky.sent.get(i));
+        }
+        assertEquals(0, client.getPending());
+    }
+
+    @Test
+    public void pendingEnvelopesSurviveRestart() throws Exception {
+        flaky.down = true;
+        client = create(64 * 1024, 1024 * 1024);
+        for (int i = 0; i < 5; i++) {
+            client.send(envelope(sensor(i), person(i)));
+        }
+        client.close();
+
+        flaky.down = false;
+        client = create(64 * 1024, 1024 * 1024);
+        awaitDelivered(5);
+
+        assertEquals("https://example.edu/sensors/0", flaky.sent.get(0));
+        assertEquals("https://example.edu/sensors/4", flaky.sent.get(4));
+    }
+
+    @Test
+    public void rotatesSegmentsAndDropsBeyondCap() throws Exception {
+        flaky.down = true;
+        client = create(4 * 1024, 16 * 1024);
+
+        for (int i = 0; i < 200; i++) {
+            client.send(envelope(sensor(i), person(i)));
+        }
+
+        int pending = client.getPending();
+        assertTrue(pending > 0 && pending < 200);
+        assertEquals(200 - pending, client.getStatistics().getDropped().getCount());
+        assertEquals(4, new File(folder.getRoot(), "spool").listFiles().length);
+
+        flaky.down = false;
+        awaitDelivered(pending);
+    }
+
+    @Test
+    public void deadLettersPermanentFailuresAfterMaxAttempts() throws Exception {
+        flaky.rejected.add("https://example.edu/sensors/0");
+        File deadLetters = folder.newFolder("dead");
+        client = SpoolingCaliperClient.create(flaky, options(64 * 1024, 1024 * 1024)
+            .maxAttempts(3)
+            .deadLetterDirectory(deadLetters.getPath())
+            .build());
+
+        for (int i = 0; i < 3; i++) {
+            client.send(envelope(sensor(i), person(i)));
+        }
+        awaitDelivered(2);
+
+        assertEquals("https://example.edu/sensors/1", flaky.sent.get(0));
+        assertEquals(3, flaky.rejections.get());
+        assertEquals(1, client.getStatistics().getDropped().getCount());
+        assertEquals(1, deadLetters.listFiles().length);
+        assertEquals(0, client.getPending());
+    }
+
+    @Test
+    public void deadLettersUnexpectedFailures() throws Exception {
+        flaky.script.add(new IllegalStateException("client is broken"));
+        flaky.script.add(new IllegalStateException("client is broken"));
+        File deadLetters = folder.newFolder("dead");
+        client = SpoolingCaliperClient.create(flaky, options(64 * 1024, 1024 * 1024)
+            .maxAttempts(2)
+            .deadLetterDirectory(deadLetters.getPath())
+            .build());
+
+        client.send(envelope(sensor(0), person(0)));
+        client.send(envelope(sensor(1), person(1)));
+        awaitDelivered(1);
+
+        assertEquals("https://example.edu/sensors/1", flaky.sent.get(0));
+        assertEquals(1, deadLetters.listFiles().length);
+    }
+
+    @Test
+    public void transientFailureResetsPermanentAttempts() throws Exception {
+        flaky.script.add(new CaliperSendException(400));
+        flaky.script.add(new CaliperSendException(503));
+        flaky.script.add(new CaliperSendException(400));
+        client = SpoolingCaliperClient.create(flaky, options(64 * 1024, 1024 * 1024).maxAttempts(2).build());
+
+        client.send(envelope(sensor(0), person(0)));
+        awaitDelivered(1);
+
+        assertEquals("https://example.edu/sensors/0", flaky.sent.get(0));
+        assertEquals(0, client.getStatistics().getDropped().getCount());
+    }
+
+    @Test
+    public void replaysSpooledBytesThroughAsyncClient() throws Exception {
+        StubEndpoint endpoint = new StubEndpoint(2).failFirst(2, 503, null);
+        HttpClientOptions opts = HttpClientOptions.builder()
+            .apiKey("faux_key")
+            .host(endpoint.getHost())
+            .maxRetries(0)
+            .transport(Transport.NON_BLOCKING)
+            .build();
+        AsyncHttpClient async = (AsyncHttpClient) HttpClientFactory.create("urn:test:client", opts);
+
+        try {
+            client = SpoolingCaliperClient.create(async, options(64 * 1024, 1024 * 1024).build());
+            Envelope envelope = envelope(sensor(0), person(0));
+            client.send(envelope);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while ((endpoint.getReceived() < 3 || client.getPending() > 0) && System.nanoTime() < deadline) {
+                Thread.sleep(10L);
+            }
+
+            assertEquals(3, endpoint.getReceived());
+            assertEquals(0, client.getPending());
+            assertArrayEquals(AbstractClient.mapperOf(async).writeValueAsBytes(envelope), endpoint.getLastBody());
+        } finally {
+            client.close();
+            async.close();
+            endpoint.stop();
+        }
+    }
+
+    @After
+    public void teardown() {
+        client.close();
+    }
+
+    private SpoolingCaliperClient create(int segmentSize, long maxBytes) {
+        return SpoolingCaliperClient.create(flaky, options(segmentSize, maxBytes).build());
+    }
+
+    private SpoolClientOptions.OptionsBuilder options(int segmentSize, long maxBytes) {
+        return SpoolClientOptions.builder()
+            .directory(new File(folder.getRoot(), "spool").getPath())
+            .segmentSize(segmentSize)
+            .maxBytes(maxBytes)
+            .fsyncPolicy(FsyncPolicy.NEVER)
+            .retryInterval(10L);
+    }
+
+    private void awaitDelivered(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (flaky.sent.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertEquals(count, flaky.sent.size());
+    }
+
+    /**
+     * Client stub that records the sensor of each delivered envelope, fails while the endpoint is
+     * down and rejects envelopes from the listed sensors.
+     */
+    private static class FlakyClient extends StubClient {
+        private final List<String> sent = Collections.synchronizedList(new ArrayList<String>());
+        private final Set<String> rejected = Collections.synchronizedSet(new HashSet<String>());
+        private final AtomicInteger rejections = new AtomicInteger();
+        private final Queue<RuntimeException> script = new ConcurrentLinkedQueue<>();
+        private volatile boolean down;
+
+        private FlakyClient(String id) {
+            super(id);
+        }
+
+        public void send(Envelope envelope) {
+            statistics.updateMeasures(1);
+            RuntimeException scripted = script.poll();
+            if (scripted != null) {
+                statistics.updateFailed(1);
+                throw scripted;
+            }
+            if (down) {
+                statistics.updateFailed(1);
+                throw new CaliperSendException(503);
+            }
+            if (rejected.contains(envelope.getSensorId())) {
+                statistics.updateFailed(1);
+                rejections.incrementAndGet();
+                throw new CaliperSendException(400);
+            }
+            statistics.updateSuccessful(1);
+            sent.add(envelope.getSensorId());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP endpoint stub that answers every POST with a fixed status after a fixed latency.
+ */
+public class StubEndpoint {
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long latency = 0L;
+    private volatile String lastContentType;
+    private volatile String lastContentEncoding;
+    private volatile byte[] lastBody;
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile int failureStatus;
+    private volatile String retryAfter;
+
+    /**
+     * Constructor.  Binds to an ephemeral loopback port and starts serving.
+     * @param threads
+     * @throws IOException
+     */
+    public StubEndpoint(int threads) throws IOException {
+        executor = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                lastContentType = exchange.getRequestHeaders().getFirst("Content-Type");
+                lastContentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+                lastBody = ByteStreams.toByteArray(exchange.getRequestBody());
+                int concurrent = inFlight.incrementAndGet();
+                int max;
+                while (concurrent > (max = maxInFlight.get()) && !maxInFlight.compareAndSet(max, concurrent)) {
+                    // lost the race to another request; re-read the maximum
+                }
+                if (latency > 0) {
+                    try {
+                        Thread.sleep(latency);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                inFlight.decrementAndGet();
+                received.incrementAndGet();
+                if (failures.getAndDecrement() > 0) {
+                    if (retryAfter != null) {
+                        exchange.getResponseHeaders().set("Retry-After", retryAfter);
+                    }
+                    exchange.sendResponseHeaders(failureStatus, -1);
+                } else {
+                    exchange.sendResponseHeaders(status, -1);
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    public StubEndpoint status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    public StubEndpoint failFirst(int count, int status, String retryAfter) {
+        this.failureStatus = status;
+        this.retryAfter = retryAfter;
+        this.failures.set(count);
+        return this;
+    }
+
+    public StubEndpoint latency(long latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public String getHost() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public int getReceived() {
+        return received.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    public String getLastContentType() {
+        return lastContentType;
+    }
+
+    public String getLastContentEncoding() {
+        return lastContentEncoding;
+    }
+
+    public byte[] getLastBody() {
+        return lastBody;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.imsglobal.caliper.actions.Action;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.imsglobal.caliper.entities.agent.SoftwareApplication;
+import org.imsglobal.caliper.entities.session.Session;
+import org.imsglobal.caliper.events.SessionEvent;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class CompactFormatTest {
+    private JsonldStringContext context;
+    private Person actor;
+    private SoftwareApplication object;
+
+    private static final String BASE_IRI = "https://example.edu";
+
+    @Before
+    public void setUp() throws Exception {
+        context = JsonldStringContext.getDefault();
+        actor = Person.builder().context(context).id(BASE_IRI.concat("/users/554433")).build();
+        object = SoftwareApplication.builder().context(context).id(BASE_IRI).version("v2").build();
+    }
+
+    @Test
+    public void nestedContextOmitted() throws Exception {
+        JsonNode event = compact(buildEvent(actor, object));
+
+        assertEquals(context.getId(), event.get("@context").asText());
+        assertFalse(event.get("actor").has("@context"));
+        assertFalse(event.get("object").has("@context"));
+        assertEquals(actor.getId(), event.get("actor").get("id").asText());
+    }
+
+    @Test
+    public void differingContextRetained() throws Exception {
+        Person other = Person.builder()
+            .context(JsonldStringContext.create("http://purl.imsglobal.org/ctx/caliper/v1p2"))
+            .id(actor.getId())
+            .build();
+        JsonNode event = compact(buildEvent(other, object));
+
+        assertEquals("http://purl.imsglobal.org/ctx/caliper/v1p2", event.get("actor").get("@context").asText());
+        assertFalse(event.get("object").has("@context"));
+    }
+
+    @Test
+    public void pinnedEntityOmitsInheritedContext() throws Exception {
+        EntityFragmentCache.getDefault().pin(object);
+        try {
+            JsonNode top = compact(object);
+            JsonNode first = compact(buildEvent(actor, object));
+            JsonNode second = compact(buildEvent(actor, object));
+
+            assertEquals(context.getId(), top.get("@context").asText());
+            assertFalse(first.get("object").has("@context"));
+            assertEquals(first, second);
+            assertEquals(object.getId(), second.get("object").get("id").asText());
+        } finally {
+            EntityFragmentCache.getDefault().clear();
+        }
+    }
+
+    @Test
+    public void jsonldFormatUnchanged() throws Exception {
+        JxnMapper mapper = JxnMapper.forFormat(DataFormat.CALIPER_JSONLD);
+        JsonNode event = mapper.getObjectMapper().readTree(mapper.writeValueAsString(buildEvent(actor, object)));
+
+        assertTrue(event.get("actor").has("@context"));
+        assertTrue(event.get("object").has("@context"));
+    }
+
+    @Test
+    public void topLevelEntityKeepsContext() throws Exception {
+        JxnMapper mapper = JxnMapper.forFormat(DataFormat.CALIPER_JSON);
+        JsonNode entity = mapper.getObjectMapper().readTree(mapper.writeValueAsString(actor));
+
+        assertEquals(context.getId(), entity.get("@context").asText());
+    }
+
+    private JsonNode compact(Object value) throws Exception {
+        JxnMapper mapper = JxnMapper.forFormat(DataFormat.CALIPER_JSON);
+        return mapper.getObjectMapper().readTree(mapper.writeValueAsString(value));
+    }
+
+    private SessionEvent buildEvent(Person actor, SoftwareApplication object) {
+        return SessionEvent.builder()
+            .context(context)
+            .id("urn:uuid:fcd495d0-3740-4298-9bec-1154571dc211")
+            .actor(actor)
+            .action(Action.LOGGED_IN)
+            .object(object)
+            .eventTime(new DateTime(2016, 11, 15, 10, 15, 0, 0, DateTimeZone.UTC))
+            .session(Session.builder().id(BASE_IRI.concat("/sessions/1")).context(context).build())
+            .build();
+    }
+}
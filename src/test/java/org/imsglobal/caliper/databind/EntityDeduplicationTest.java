@@ -0,0 +1,126 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.entities.agent.CourseSection;
+import org.imsglobal.caliper.entities.agent.Membership;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class EntityDeduplicationTest {
+    private Person member;
+    private CourseSection section;
+    private Envelope envelope;
+
+    @Before
+    public void setUp() throws Exception {
+        member = Person.builder().id("https://example.edu/users/554433").name("Jane Doe").build();
+        section = CourseSection.builder().id("https://example.edu/terms/201601/courses/7/sections/1").build();
+
+        List<Object> data = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            data.add(Membership.builder()
+                .id("https://example.edu/terms/201601/courses/7/sections/1/rosters/" + i)
+                .member(member)
+                .organization(section)
+                .build());
+        }
+        envelope = new Envelope("https://example.edu/sensors/1", DateTime.now(), Config.DATA_VERSION, data);
+    }
+
+    @Test
+    public void repeatOccurrencesCoercedToId() throws Exception {
+        JsonNode data = read(JxnMapper.getDeduplicating()).get("data");
+
+        assertEquals("Jane Doe", data.get(0).get("member").get("name").asText());
+        assertTrue(data.get(0).get("organization").isObject());
+        for (int i = 1; i < 3; i++) {
+            assertEquals(member.getId(), data.get(i).get("member").asText());
+            assertEquals(section.getId(), data.get(i).get("organization").asText());
+        }
+    }
+
+    @Test
+    public void eachEnvelopeStartsAfresh() throws Exception {
+        JxnMapper mapper = JxnMapper.getDeduplicating();
+        String first = mapper.writeValueAsString(envelope);
+        String second = mapper.writeValueAsString(envelope);
+
+        JSONAssert.assertEquals(first, second, JSONCompareMode.STRICT);
+        assertTrue(read(mapper).get("data").get(0).get("member").isObject());
+    }
+
+    @Test
+    public void defaultMapperWritesEveryOccurrence() throws Exception {
+        JsonNode data = read(JxnMapper.getDefault()).get("data");
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(data.get(i).get("member").isObject());
+        }
+    }
+
+    @Test
+    public void pinnedFragmentIndependentOfPrecedingEntities() throws Exception {
+        Membership pinned = Membership.builder()
+            .id("https://example.edu/terms/201601/courses/7/sections/1/rosters/pinned")
+            .member(member)
+            .build();
+        EntityFragmentCache.getDefault().pin(pinned);
+
+        List<Object> data = new ArrayList<>();
+        data.add(member);
+        data.add(pinned);
+        Envelope first = new Envelope("https://example.edu/sensors/1", DateTime.now(), Config.DATA_VERSION, data);
+        JxnMapper.getDeduplicating().writeValueAsString(first);
+
+        List<Object> alone = new ArrayList<>();
+        alone.add(pinned);
+        Envelope second = new Envelope("https://example.edu/sensors/1", DateTime.now(), Config.DATA_VERSION, alone);
+        JsonNode node = JxnMapper.getDeduplicating().getObjectMapper()
+            .readTree(JxnMapper.getDeduplicating().writeValueAsString(second));
+
+        assertTrue(node.get("data").get(0).get("member").isObject());
+    }
+
+    @After
+    public void teardown() {
+        EntityFragmentCache.getDefault().clear();
+    }
+
+    private JsonNode read(JxnMapper mapper) throws Exception {
+        return mapper.getObjectMapper().readTree(mapper.writeValueAsString(envelope));
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.imsglobal.caliper.entities.agent.SoftwareApplication;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class EntityFragmentCacheTest {
+    private EntityFragmentCache cache;
+    private SoftwareApplication edApp;
+    private Envelope envelope;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = EntityFragmentCache.getDefault();
+
+        edApp = SoftwareApplication.builder()
+            .context(JsonldStringContext.getDefault())
+            .id("https://example.edu")
+            .version("v2")
+            .dateCreated(new DateTime(2016, 8, 1, 6, 0, 0, 0, DateTimeZone.UTC))
+            .build();
+
+        List<Object> data = new ArrayList<>();
+        data.add(edApp);
+        data.add(Person.builder().id("https://example.edu/users/554433").build());
+        data.add(edApp);
+        envelope = new Envelope("https://example.edu/sensors/1", DateTime.now(), Config.DATA_VERSION, data);
+    }
+
+    @Test
+    public void pinnedEntitySerializesIdentically() throws Exception {
+        JxnMapper mapper = JxnMapper.getDefault();
+        String expected = mapper.writeValueAsString(envelope);
+
+        cache.pin(edApp);
+        String first = mapper.writeValueAsString(envelope);
+        String second = mapper.writeValueAsString(envelope);
+
+        JSONAssert.assertEquals(expected, first, JSONCompareMode.STRICT);
+        assertEquals(first, second);
+        assertNotNull(cache.lookup(edApp).get(mapper.getObjectMapper().getSerializationConfig(), null));
+    }
+
+    @Test
+    public void unpinnedEntityIsNotCached() throws Exception {
+        cache.pin(edApp);
+        cache.unpin(edApp);
+        JxnMapper.getDefault().writeValueAsString(envelope);
+
+        assertFalse(cache.isPinned(edApp));
+        assertNull(cache.lookup(edApp));
+    }
+
+    @Test
+    public void keepsOneFragmentPerMapper() throws Exception {
+        JxnMapper jsonld = JxnMapper.forFormat(DataFormat.CALIPER_JSONLD);
+        JxnMapper json = JxnMapper.forFormat(DataFormat.CALIPER_JSON);
+        String expectedJsonld = jsonld.writeValueAsString(envelope);
+        String expectedJson = json.writeValueAsString(envelope);
+
+        cache.pin(edApp);
+        for (int i = 0; i < 2; i++) {
+            JSONAssert.assertEquals(expectedJsonld, jsonld.writeValueAsString(envelope), JSONCompareMode.STRICT);
+            JSONAssert.assertEquals(expectedJson, json.writeValueAsString(envelope), JSONCompareMode.STRICT);
+        }
+
+        EntityFragmentCache.Pin pin = cache.lookup(edApp);
+        SerializedString jsonldFragment = pin.get(jsonld.getObjectMapper().getSerializationConfig(), null);
+        assertNotNull(jsonldFragment);
+        assertNotNull(pin.get(json.getObjectMapper().getSerializationConfig(), null));
+        assertSame(jsonldFragment, pin.put(jsonld.getObjectMapper().getSerializationConfig(), null, "{}"));
+    }
+
+    @After
+    public void teardown() {
+        cache.clear();
+    }
+}
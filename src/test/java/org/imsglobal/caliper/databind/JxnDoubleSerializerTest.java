@@ -0,0 +1,100 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class JxnDoubleSerializerTest {
+    private final JxnDoubleSerializer serializer = new JxnDoubleSerializer();
+    private final DecimalFormat reference = new DecimalFormat("##0.0#", DecimalFormatSymbols.getInstance(Locale.US));
+
+    @Test
+    public void matchesDecimalFormat() throws Exception {
+        double[] values = { 1.0, -1.0, 0.5, 0.125, 0.375, 0.135, 0.005, 2.675, 12.3, 99.995, -3.999, -0.001,
+            1e-300, 1234567.891, 630895671101296.875, 9007199254740993.0, 1e20, Double.MAX_VALUE };
+        for (double value : values) {
+            assertEquals(reference.format(value), write(value));
+        }
+    }
+
+    @Test
+    public void writesNumbersToCbor() throws Exception {
+        CBORFactory factory = new CBORFactory();
+        double[] values = { 42.0, 2.675, -0.001, 1e20 };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonGenerator generator = factory.createGenerator(out);
+        generator.writeStartArray();
+        for (double value : values) {
+            serializer.serialize(value, generator, null);
+        }
+        generator.writeEndArray();
+        generator.close();
+
+        JsonParser parser = factory.createParser(out.toByteArray());
+        assertEquals(JsonToken.START_ARRAY, parser.nextToken());
+        for (double value : values) {
+            assertEquals(JsonToken.VALUE_NUMBER_FLOAT, parser.nextToken());
+            assertEquals(Double.parseDouble(reference.format(value)), parser.getDoubleValue(), 0.0);
+        }
+    }
+
+    @Test
+    public void matchesDecimalFormatAcrossMagnitudes() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 20);
+            if (value != 0.0) {
+                assertEquals(reference.format(value), write(value));
+            }
+        }
+    }
+
+    @Test
+    public void zeroNaNAndInfinityWriteNull() throws Exception {
+        assertEquals("null", write(0.0));
+        assertEquals("null", write(Double.NaN));
+        assertEquals("null", write(Double.POSITIVE_INFINITY));
+    }
+
+    private String write(double value) throws Exception {
+        StringWriter writer = new StringWriter();
+        JsonGenerator generator = new JsonFactory().createGenerator(writer);
+        serializer.serialize(value, generator, null);
+        generator.close();
+        return writer.toString();
+    }
+}
@@ -25,11 +25,13 @@ import org.imsglobal.caliper.Envelope;
 import org.imsglobal.caliper.Sensor;
 import org.imsglobal.caliper.TestUtils;
 import org.imsglobal.caliper.actions.Action;
+import org.imsglobal.caliper.clients.EnvelopeEntity;
 import org.imsglobal.caliper.clients.HttpClient;
 import org.imsglobal.caliper.clients.HttpClientOptions;
 import org.imsglobal.caliper.config.Config;
 import org.imsglobal.caliper.context.JsonldContext;
 import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.databind.JxnMapper;
 import org.imsglobal.caliper.entities.agent.CourseSection;
 import org.imsglobal.caliper.entities.agent.Membership;
 import org.imsglobal.caliper.entities.agent.Person;
@@ -49,6 +51,7 @@ import org.junit.experimental.categories.Category;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -56,6 +59,7 @@ import java.util.regex.Pattern;
 
 import static com.yammer.dropwizard.testing.JsonHelpers.jsonFixture;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @Category(org.imsglobal.caliper.UnitTest.class)
 public class EnvelopeEventSingleTest {
@@ -175,6 +179,20 @@ public class EnvelopeEventSingleTest {
         assertEquals("Content-Type: application/json; charset=UTF-8", entity.getContentType().toString());
     }
 
+    @Test
+    public void testStreamingEnvelopeEntity() throws Exception {
+        String json = JxnMapper.getDefault().writeValueAsString(envelope);
+
+        EnvelopeEntity entity = new EnvelopeEntity(envelope, JxnMapper.getDefault(), ContentType.APPLICATION_JSON);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+
+        assertTrue(entity.isChunked());
+        assertEquals(-1, entity.getContentLength());
+        assertEquals("Content-Type: application/json; charset=UTF-8", entity.getContentType().toString());
+        assertEquals(json, out.toString("UTF-8"));
+    }
+
     @After
     public void teardown() {
         event = null;
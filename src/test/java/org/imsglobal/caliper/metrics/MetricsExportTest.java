@@ -0,0 +1,138 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.clients.BufferingClient;
+import org.imsglobal.caliper.clients.CaliperClientOptions;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class MetricsExportTest {
+    private Sensor sensor;
+    private StubClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        client = new StubClient("urn:test:\"client\"");
+        client.statistics.updateMeasures(1);
+        client.statistics.updateSuccessful(1);
+        client.statistics.updateFailed(1);
+        client.statistics.getRoundTripLatency().record(TimeUnit.MILLISECONDS.toNanos(20));
+
+        sensor = Sensor.create("urn:test:sensor");
+        sensor.registerClient(client);
+    }
+
+    @Test
+    public void prometheusTextExposesCountersBacklogAndLatency() throws Exception {
+        String text = PrometheusExporter.create(sensor).scrape();
+        String labels = "{sensor=\"urn:test:sensor\",client=\"urn:test:\\\"client\\\"\"";
+
+        assertTrue(text.contains("# TYPE caliper_client_failed_total counter\n"));
+        assertTrue(text.contains("caliper_client_measures_total" + labels + "} 1\n"));
+        assertTrue(text.contains("caliper_client_failed_total" + labels + "} 1\n"));
+        assertTrue(text.contains("caliper_client_backlog" + labels + "} 7\n"));
+        assertTrue(text.contains("caliper_client_latency_seconds_count" + labels + ",stage=\"round_trip\"} 1\n"));
+        assertTrue(text.contains("caliper_client_latency_seconds" + labels + ",stage=\"round_trip\",quantile=\"0.99\"} 0.02"));
+    }
+
+    @Test
+    public void jmxPublishesOneMBeanPerClient() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        JmxExporter exporter = JmxExporter.create(sensor, server);
+        ObjectName name = exporter.name(client);
+
+        assertEquals(1L, server.getAttribute(name, "Failed"));
+        assertEquals(7, server.getAttribute(name, "Backlog"));
+
+        sensor.unregisterClient(client.getId());
+        exporter.refresh();
+        assertFalse(server.isRegistered(name));
+        exporter.close();
+    }
+
+    @Test
+    public void micrometerBinderRegistersMeters() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new CaliperMeterBinder(sensor).bindTo(registry);
+
+        assertEquals(1.0, registry.get("caliper.client.failed").functionCounter().count(), 0.0);
+        assertEquals(7.0, registry.get("caliper.client.backlog").gauge().value(), 0.0);
+        assertEquals(0.02, registry.get("caliper.client.latency").tag("stage", "round_trip").tag("quantile", "0.99")
+            .gauge().value(), 0.001);
+    }
+
+    @Test
+    public void percentileAttributesShareOneSnapshotPerScrape() throws Exception {
+        ClientStatistics statistics = new ClientStatistics(client);
+        assertEquals(20.0, statistics.getRoundTripP50Millis(), 0.5);
+
+        for (int i = 0; i < 100; i++) {
+            client.statistics.getRoundTripLatency().record(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+        assertEquals(20.0, statistics.getRoundTripP99Millis(), 0.5);
+    }
+
+    /**
+     * Buffering client stub with fixed statistics and backlog.
+     */
+    private static class StubClient implements BufferingClient {
+        private final String id;
+        private final Statistics statistics = new Statistics();
+
+        private StubClient(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public CaliperClientOptions getOptions() {
+            return null;
+        }
+
+        public Statistics getStatistics() {
+            return statistics;
+        }
+
+        public int getBacklog() {
+            return 7;
+        }
+
+        public void send(Envelope envelope) {
+
+        }
+    }
+}
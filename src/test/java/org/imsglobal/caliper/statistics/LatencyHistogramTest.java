@@ -0,0 +1,83 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.statistics;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10000, snapshot.getCount());
+        assertWithin(5000000L, snapshot.getP50());
+        assertWithin(9000000L, snapshot.getP90());
+        assertWithin(9900000L, snapshot.getP99());
+        assertWithin(9990000L, snapshot.getP999());
+        assertEquals(10000000L, snapshot.getMax());
+        assertEquals(5000500.0, snapshot.getMean(), 0.001);
+    }
+
+    @Test
+    public void everyValueMapsToTheBucketThatCoversIt() {
+        for (long value = 0; value < LatencyHistogram.HIGHEST_TRACKABLE_VALUE; value = value * 3 / 2 + 1) {
+            int index = LatencyHistogram.index(value);
+            long lowest = (index == 0) ? 0L : LatencyHistogram.highestValue(index - 1) + 1;
+            assertTrue(value >= lowest && value <= LatencyHistogram.highestValue(index));
+        }
+    }
+
+    @Test
+    public void intervalSnapshotCoversValuesSincePreviousInterval() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100L);
+        histogram.record(200L);
+        assertEquals(2, histogram.intervalSnapshot().getCount());
+
+        histogram.record(300L);
+        LatencyHistogram.Snapshot interval = histogram.intervalSnapshot();
+        assertEquals(1, interval.getCount());
+        assertWithin(300L, interval.getP50());
+        assertEquals(3, histogram.getCount());
+    }
+
+    @Test
+    public void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5L);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0L, histogram.getValueAtPercentile(50.0));
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_VALUE, histogram.getValueAtPercentile(100.0));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("Expected " + expected + " but was " + actual, Math.abs(actual - expected) <= expected / 64 + 1);
+    }
+}
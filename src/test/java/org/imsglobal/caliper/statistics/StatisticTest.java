@@ -0,0 +1,120 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.statistics;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class StatisticTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void computesSampleMomentsOfSeries() {
+        Statistic statistic = new Statistic();
+        for (double val : new double[] {2, 4, 4, 4, 5, 5, 7, 9}) {
+            statistic.update(val);
+        }
+
+        assertEquals(8, statistic.getCount());
+        assertEquals(40.0, statistic.getSum(), DELTA);
+        assertEquals(5.0, statistic.getAverage(), DELTA);
+        assertEquals(32.0 / 7.0, statistic.getVariance(), DELTA);
+        assertEquals(2.0, statistic.getMin(), DELTA);
+        assertEquals(9.0, statistic.getMax(), DELTA);
+        assertEquals(9.0, statistic.getLast(), DELTA);
+    }
+
+    @Test
+    public void varianceStaysAccurateForLargeValues() {
+        Statistic statistic = new Statistic();
+        for (double val : new double[] {4, 7, 13, 16}) {
+            statistic.update(1e9 + val);
+        }
+
+        assertEquals(30.0, statistic.getVariance(), 1e-6);
+        assertEquals(1e9 + 10.0, statistic.getAverage(), 1e-6);
+    }
+
+    @Test
+    public void clearResetsEveryMeasure() {
+        Statistic statistic = new Statistic();
+        statistic.update(3.0);
+        statistic.update(-1.0);
+        statistic.clear();
+
+        assertEquals(0, statistic.getCount());
+        assertEquals(0.0, statistic.getSum(), DELTA);
+        assertEquals(0.0, statistic.getMin(), DELTA);
+        assertEquals(0.0, statistic.getMax(), DELTA);
+        assertEquals(0.0, statistic.getVariance(), DELTA);
+    }
+
+    @Test
+    public void staysAccurateUnderConcurrentWriters() throws Exception {
+        final Statistic statistic = new Statistic();
+        final int threads = 8;
+        final int updates = 100000;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            final double offset = t;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < updates; i++) {
+                        statistic.update(offset + (i % 2));
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Thread t contributes equal numbers of t and t + 1.
+        long n = (long) threads * updates;
+        double mean = threads / 2.0;
+        double sumOfSquares = 0.0;
+        for (int t = 0; t < threads; t++) {
+            sumOfSquares += (updates / 2.0) * (Math.pow(t - mean, 2) + Math.pow(t + 1 - mean, 2));
+        }
+
+        assertEquals(n, statistic.getCount());
+        assertEquals(mean, statistic.getAverage(), 1e-6);
+        assertEquals(sumOfSquares / (n - 1), statistic.getVariance(), 1e-6);
+        assertEquals(0.0, statistic.getMin(), DELTA);
+        assertEquals(threads, statistic.getMax(), DELTA);
+    }
+}
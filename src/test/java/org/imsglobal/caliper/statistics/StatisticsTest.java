@@ -0,0 +1,84 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.statistics;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class StatisticsTest {
+
+    @Test
+    public void wellKnownStatisticsAreEnteredInTheMap() {
+        Statistics statistics = new Statistics();
+        statistics.updateMeasures(1);
+        statistics.updateFailed(1);
+
+        assertSame(statistics.getMeasures(), statistics.get("Measure"));
+        assertSame(statistics.getFailed(), statistics.ensure("Failed"));
+        assertEquals(1, statistics.get("Failed").getCount());
+    }
+
+    @Test
+    public void dynamicKeysAreCreatedOnce() {
+        Statistics statistics = new Statistics();
+        statistics.update("Custom", 2.0);
+        statistics.update("Custom", 4.0);
+
+        assertSame(statistics.ensure("Custom"), statistics.get("Custom"));
+        assertEquals(2, statistics.get("Custom").getCount());
+        assertEquals(3.0, statistics.get("Custom").getAverage(), 0.0);
+    }
+
+    @Test
+    public void wellKnownStatisticsCannotBeReplacedOrRemoved() {
+        Statistics statistics = new Statistics();
+        Statistic measures = statistics.getMeasures();
+
+        try {
+            statistics.put("Measure", new Statistic());
+            fail("Expected put to be rejected");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            statistics.remove("Measure");
+            fail("Expected remove to be rejected");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        assertSame(measures, statistics.get("Measure"));
+    }
+
+    @Test
+    public void dynamicKeysCanBeRemoved() {
+        Statistics statistics = new Statistics();
+        statistics.update("Custom", 1.0);
+
+        statistics.remove("Custom");
+
+        assertNull(statistics.get("Custom"));
+    }
+}